@@ -1,9 +1,63 @@
 package com.storyweaver.api.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
 
 @ConfigurationProperties(prefix = "api")
-public record ApiConfig(HuggingFace huggingFace, Supabase supabase) {
+public record ApiConfig(
+        HuggingFace huggingFace,
+        Supabase supabase,
+        @DefaultValue Export export,
+        @DefaultValue Replica replica,
+        @DefaultValue Idempotency idempotency,
+        @DefaultValue Storage storage,
+        @DefaultValue Cleanup cleanup,
+        @DefaultValue Search search,
+        @DefaultValue Images images,
+        @DefaultValue Turns turns) {
     public record HuggingFace(String url, String token) {}
     public record Supabase(String url, String key, String jwtSecret) {}
-}
\ No newline at end of file
+    // Each running export holds a DB cursor and an upstream image download open
+    public record Export(@DefaultValue("2") int maxConcurrent) {}
+    // Leave url empty to send everything to the primary
+    public record Replica(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10s") Duration readYourWritesWindow) {}
+    // How long a finished POST /api/panels response is replayed for the same Idempotency-Key, and how long a
+    // duplicate waits for one that is still generating
+    public record Idempotency(
+            @DefaultValue("10m") Duration retention,
+            @DefaultValue("5m") Duration waitTimeout) {}
+    // type is "supabase" or "local"; publicBaseUrl prefixes the /api/images URLs saved for local images
+    public record Storage(
+            @DefaultValue("supabase") String type,
+            @DefaultValue("generated-images") String localDirectory,
+            @DefaultValue("") String publicBaseUrl) {}
+    // mode is "archive" (stale rooms move to object storage and can be restored) or "delete"
+    public record Cleanup(@DefaultValue("delete") String mode) {}
+    // Panels kept in the in-memory prompt index; the oldest are dropped beyond this
+    public record Search(@DefaultValue("200000") int maxDocuments) {}
+    // Image upstreams, each a URL with a {prompt} placeholder. A request is hedged to a second provider once it
+    // runs past hedgePercentile of the primary's recent latencies, or defaultHedgeDelay until enough have been
+    // seen (generations commonly take a minute or more); failureThreshold failures in a row take a provider out
+    // for openDuration
+    public record Images(
+            @DefaultValue List<Provider> providers,
+            @DefaultValue("0.95") double hedgePercentile,
+            @DefaultValue("90s") Duration defaultHedgeDelay,
+            @DefaultValue("120s") Duration timeout,
+            @DefaultValue("5") int failureThreshold,
+            @DefaultValue("30s") Duration openDuration) {
+        public record Provider(String name, String url) {}
+    }
+    // A player who hasn't added a panel within defaultTimeout (0 = never) loses the turn; rooms can override it.
+    // tick is the timer wheel resolution, so turns are skipped up to one tick late
+    public record Turns(
+            @DefaultValue("10m") Duration defaultTimeout,
+            @DefaultValue("1s") Duration tick) {}
+}
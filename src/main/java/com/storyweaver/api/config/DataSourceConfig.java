@@ -0,0 +1,76 @@
+package com.storyweaver.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    // The replica is decided at runtime rather than with @ConditionalOnProperty so the
+    // same build works with and without api.replica.url set
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties, ApiConfig apiConfig, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        ApiConfig.Replica replicaConfig = apiConfig.replica();
+        HikariDataSource replica = null;
+        if (StringUtils.hasText(replicaConfig.url())) {
+            replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replicaConfig.url())
+                    .username(replicaConfig.username())
+                    .password(replicaConfig.password())
+                    .build();
+            replica.setPoolName("replica");
+            replica.setReadOnly(true);
+            // Fail over to the primary quickly instead of queueing reads behind a dead replica
+            replica.setConnectionTimeout(2000);
+        }
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ApiConfig apiConfig) {
+        return new ReadYourWritesFilter(apiConfig.replica().readYourWritesWindow());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthCheck replicaHealthCheck(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaHealthCheck(replicaRoutingDataSource);
+    }
+
+    public static class ReplicaHealthCheck {
+
+        private final ReplicaRoutingDataSource dataSource;
+
+        ReplicaHealthCheck(ReplicaRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${api.replica.health-check-interval:10s}")
+        public void check() {
+            dataSource.checkReplicaHealth();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.storyweaver.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Carries the read-your-writes marker with the client instead of keeping it on one instance.
+ * <p>
+ * A request that opens a read-write transaction gets a {@value #COOKIE} cookie and a
+ * {@value #HEADER} header holding the time, in epoch millis, until which that client's reads
+ * go to the primary. Later requests send either one back and are routed on it, whichever
+ * instance serves them. Browsers return the cookie on their own when requests are made with
+ * credentials; other clients copy the header onto their next requests.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "read-primary-until";
+    public static final String HEADER = "Read-Primary-Until";
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        // A value further out than one window did not come from us; don't let it pin reads forever
+        long remaining = readPrimaryUntil(request) - System.currentTimeMillis();
+        boolean wroteRecently = remaining > 0 && remaining <= window.toMillis();
+        // markWrite runs as the write transaction opens, before the controller starts writing the body
+        ReplicaRoutingDataSource.bindClient(wroteRecently, () -> markWrite(response));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unbindClient();
+        }
+    }
+
+    private void markWrite(HttpServletResponse response) {
+        String until = Long.toString(System.currentTimeMillis() + window.toMillis());
+        // The frontend is on another site, so the cookie must be SameSite=None, which requires Secure
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, until)
+                .maxAge(window)
+                .path("/")
+                .httpOnly(true)
+                .secure(true)
+                .sameSite("None")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        response.setHeader(HEADER, until);
+    }
+
+    private static long readPrimaryUntil(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        if (value == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                }
+            }
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
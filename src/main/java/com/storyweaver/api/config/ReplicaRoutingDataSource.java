@@ -0,0 +1,161 @@
+package com.storyweaver.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * <p>
+ * A client whose request ran a read-write transaction keeps reading from the primary for
+ * the read-your-writes window, so a join or a new panel is visible on their next poll even if
+ * the replica lags. The client carries that marker itself ({@link ReadYourWritesFilter}), so
+ * it holds whichever instance serves the next poll. If the replica refuses a connection it is
+ * marked down and reads fall back to the primary until {@link #checkReplicaHealth()} sees it again.
+ * <p>
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy}: the read-only flag is only
+ * bound to the thread after the transaction manager asks for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Client> client = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private volatile boolean replicaHealthy = true;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    /**
+     * Binds the calling client to this thread for one request: whether it wrote recently, and
+     * what to do the first time the request opens a read-write transaction.
+     */
+    public static void bindClient(boolean wroteRecently, Runnable onFirstWrite) {
+        client.set(new Client(wroteRecently, onFirstWrite));
+    }
+
+    public static void unbindClient() {
+        client.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineTarget() == Target.PRIMARY) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            markReplicaDown(e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineTarget() == Target.PRIMARY) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replica.getConnection(username, password);
+        } catch (SQLException e) {
+            markReplicaDown(e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    Target determineTarget() {
+        Client current = client.get();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Plain repository reads outside a transaction; they say nothing about whether the client wrote
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (current != null && replica != null) {
+                current.wrote();
+            }
+            return Target.PRIMARY;
+        }
+        if (replica == null || !replicaHealthy) {
+            return Target.PRIMARY;
+        }
+        if (current != null && current.wroteRecently) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    public boolean isReplicaHealthy() {
+        return replica != null && replicaHealthy;
+    }
+
+    /**
+     * Probes the replica. Called on a schedule.
+     */
+    public void checkReplicaHealth() {
+        if (replica == null) {
+            return;
+        }
+        try (Connection connection = replica.getConnection()) {
+            if (connection.isValid(2)) {
+                if (!replicaHealthy) {
+                    logger.info("Read replica is reachable again, routing read-only transactions to it");
+                }
+                replicaHealthy = true;
+                return;
+            }
+            markReplicaDown(null);
+        } catch (SQLException e) {
+            markReplicaDown(e);
+        }
+    }
+
+    private void markReplicaDown(SQLException cause) {
+        if (replicaHealthy) {
+            logger.warn("Read replica unavailable, falling back to primary: {}",
+                    cause != null ? cause.getMessage() : "connection not valid");
+        }
+        replicaHealthy = false;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        if (replica instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class Client {
+        private boolean wroteRecently;
+        private Runnable onFirstWrite;
+
+        Client(boolean wroteRecently, Runnable onFirstWrite) {
+            this.wroteRecently = wroteRecently;
+            this.onFirstWrite = onFirstWrite;
+        }
+
+        // Later reads in the same request also see the write
+        void wrote() {
+            wroteRecently = true;
+            if (onFirstWrite != null) {
+                onFirstWrite.run();
+                onFirstWrite = null;
+            }
+        }
+    }
+}
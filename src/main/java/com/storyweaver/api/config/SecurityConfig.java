@@ -53,7 +53,9 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:5173", "https://storyweaver-ai-umber.vercel.app"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "x-upsert", "apikey"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "x-upsert", "apikey", "Idempotency-Key",
+                ReadYourWritesFilter.HEADER));
+        configuration.setExposedHeaders(Arrays.asList("Idempotent-Replayed", ReadYourWritesFilter.HEADER));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
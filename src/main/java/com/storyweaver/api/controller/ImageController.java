@@ -1,16 +1,17 @@
 package com.storyweaver.api.controller;
 
+import com.storyweaver.api.storage.ObjectStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.File;
-import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -19,25 +20,26 @@ public class ImageController {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
 
+    private final ObjectStorage objectStorage;
+
+    public ImageController(ObjectStorage objectStorage) {
+        this.objectStorage = objectStorage;
+    }
+
     @GetMapping("/{roomId}/{filename}")
     public ResponseEntity<Resource> getImage(@PathVariable UUID roomId, @PathVariable String filename) {
         try {
-            Path imagePath = Path.of("generated-images", roomId.toString(), filename);
-            File imageFile = imagePath.toFile();
-
-            if (!imageFile.exists()) {
-                logger.warn("Image file not found: {}", imagePath.toAbsolutePath());
-                return ResponseEntity.notFound().build();
-            }
-
-            logger.info("Serving local image: {}", imagePath.toAbsolutePath());
-
-            FileSystemResource resource = new FileSystemResource(imageFile);
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_JPEG)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
+            return objectStorage.loadImage(roomId, filename)
+                    .map(resource -> ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_JPEG)
+                            // Stored images are never rewritten, each upload gets a new name
+                            .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).immutable())
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                            .body(resource))
+                    .orElseGet(() -> {
+                        logger.warn("Image file not found: {}/{}", roomId, filename);
+                        return ResponseEntity.notFound().build();
+                    });
 
         } catch (Exception e) {
             logger.error("Error serving image: {}/{}", roomId, filename, e);
@@ -46,34 +48,13 @@ public class ImageController {
     }
 
     @GetMapping("/list/{roomId}")
-    public ResponseEntity<?> listImages(@PathVariable UUID roomId) {
+    public ResponseEntity<List<String>> listImages(@PathVariable UUID roomId) {
         try {
-            Path roomDir = Path.of("generated-images", roomId.toString());
-            File dir = roomDir.toFile();
-
-            if (!dir.exists() || !dir.isDirectory()) {
-                return ResponseEntity.ok().body("[]");
-            }
-
-            File[] files = dir.listFiles((d, name) -> name.toLowerCase().endsWith(".jpg"));
-            if (files == null) {
-                return ResponseEntity.ok().body("[]");
-            }
-
-            StringBuilder response = new StringBuilder("[");
-            for (int i = 0; i < files.length; i++) {
-                if (i > 0) response.append(",");
-                response.append("\"").append(files[i].getName()).append("\"");
-            }
-            response.append("]");
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.toString());
+            return ResponseEntity.ok(objectStorage.listImages(roomId));
 
         } catch (Exception e) {
             logger.error("Error listing images for room: {}", roomId, e);
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+}
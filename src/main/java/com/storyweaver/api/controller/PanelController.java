@@ -2,7 +2,9 @@ package com.storyweaver.api.controller;
 
 import com.storyweaver.api.panel.CreatePanelRequest;
 import com.storyweaver.api.panel.Panel;
-import com.storyweaver.api.panel.PanelRepository; // Import
+import com.storyweaver.api.panel.PanelView;
+import com.storyweaver.api.service.AuthHelper;
+import com.storyweaver.api.service.PanelIdempotencyService;
 import com.storyweaver.api.service.PanelService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,26 +18,51 @@ import java.util.UUID; // Import
 public class PanelController {
 
     private final PanelService panelService;
-    private final PanelRepository panelRepository; // Add
+    private final PanelIdempotencyService panelIdempotencyService;
+    private final AuthHelper authHelper;
 
     // Update constructor
-    public PanelController(PanelService panelService, PanelRepository panelRepository) {
+    public PanelController(PanelService panelService, PanelIdempotencyService panelIdempotencyService,
+            AuthHelper authHelper) {
         this.panelService = panelService;
-        this.panelRepository = panelRepository;
+        this.panelIdempotencyService = panelIdempotencyService;
+        this.authHelper = authHelper;
     }
 
     @PostMapping
-    public ResponseEntity<Panel> createPanel(@RequestBody CreatePanelRequest request) {
-        // The service will now handle the logic
-        Panel newPanel = panelService.createPanel(request.prompt(), request.roomId());
-        return ResponseEntity.ok(newPanel);
+    public ResponseEntity<Panel> createPanel(
+            @RequestBody CreatePanelRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            // The service will now handle the logic
+            Panel newPanel = panelService.createPanel(request.prompt(), request.roomId());
+            return ResponseEntity.ok(newPanel);
+        }
+
+        // Retries with the same key share one generation instead of starting another
+        PanelIdempotencyService.Outcome outcome = panelIdempotencyService.execute(
+                authHelper.getCurrentUserId(), idempotencyKey, request,
+                () -> panelService.createPanel(request.prompt(), request.roomId()));
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+                .body(outcome.panel());
     }
 
     // Add this new endpoint
     @GetMapping("/room/{roomId}")
-    public ResponseEntity<List<Panel>> getPanelsForRoom(@PathVariable UUID roomId) {
-        List<Panel> panels = panelRepository.findByRoomIdOrderByCreatedAtAsc(roomId);
-        return ResponseEntity.ok(panels);
+    public ResponseEntity<List<PanelView>> getPanelsForRoom(@PathVariable UUID roomId) {
+        return ResponseEntity.ok(panelService.getPanelsForRoom(roomId));
+    }
+
+    // Full-text search over prompts in every room, most recently created first; "drag*" matches any word starting with "drag"
+    @GetMapping("/search")
+    public ResponseEntity<List<PanelView>> searchPanels(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(panelService.searchPanels(query, limit));
     }
 
     @PostMapping("/context")
@@ -0,0 +1,51 @@
+package com.storyweaver.api.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GETs an image from a URL template such as
+ * {@code https://image.pollinations.ai/prompt/{prompt}?width=1024&height=1024}, with the
+ * prompt URL-encoded into the {@code {prompt}} placeholder.
+ */
+public class HttpImageProvider implements ImageProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpImageProvider.class);
+
+    private final String name;
+    private final String urlTemplate;
+    private final WebClient webClient;
+
+    public HttpImageProvider(String name, String urlTemplate, WebClient webClient) {
+        if (!urlTemplate.contains("{prompt}")) {
+            throw new IllegalArgumentException("Image provider url must contain {prompt}: " + urlTemplate);
+        }
+        this.name = name;
+        this.urlTemplate = urlTemplate;
+        this.webClient = webClient;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Mono<byte[]> generate(String prompt) {
+        String url = urlTemplate.replace("{prompt}", URLEncoder.encode(prompt, StandardCharsets.UTF_8));
+        return Mono.defer(() -> {
+            logger.info("Calling image provider {}: {}", name, url);
+            return webClient.get()
+                    .uri(URI.create(url))
+                    .retrieve()
+                    .bodyToMono(byte[].class);
+        }).filter(bytes -> bytes.length > 0)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Received empty image response from " + name)));
+    }
+}
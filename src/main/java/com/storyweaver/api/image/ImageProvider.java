@@ -0,0 +1,14 @@
+package com.storyweaver.api.image;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * One upstream that turns a prompt into image bytes. The returned Mono must abort the
+ * request when it is cancelled, so a hedged request that loses stops using the connection.
+ */
+public interface ImageProvider {
+
+    String name();
+
+    Mono<byte[]> generate(String prompt);
+}
@@ -0,0 +1,30 @@
+package com.storyweaver.api.image;
+
+import com.storyweaver.api.config.ApiConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+@Configuration
+public class ImageProviderConfig {
+
+    // Generated images are well under this; the WebClient default of 256 KB is not
+    private static final int MAX_IMAGE_BYTES = 16 * 1024 * 1024;
+
+    @Bean
+    public ImageProviderRouter imageProviderRouter(ApiConfig apiConfig, WebClient.Builder webClientBuilder) {
+        ApiConfig.Images images = apiConfig.images();
+        WebClient webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create().followRedirect(true)))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_IMAGE_BYTES))
+                .build();
+        List<ImageProvider> providers = images.providers().stream()
+                .map(provider -> (ImageProvider) new HttpImageProvider(provider.name(), provider.url(), webClient))
+                .toList();
+        return new ImageProviderRouter(providers, images);
+    }
+}
@@ -0,0 +1,200 @@
+package com.storyweaver.api.image;
+
+import com.storyweaver.api.config.ApiConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sends each prompt to the fastest healthy provider and, if it hasn't answered by the time
+ * {@code hedgePercentile} of its recent requests had, to a second one as well. Whichever
+ * answers first wins and the other request is cancelled. A provider that fails too often in
+ * a row (timeouts included) is skipped for {@code openDuration}, then gets a single trial request.
+ * <p>
+ * Only a distinct provider is hedged to. With one provider configured, or only one with its
+ * circuit closed, the request is sent once: a duplicate to the same upstream would just queue
+ * behind the slow one and double its load.
+ */
+public class ImageProviderRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageProviderRouter.class);
+
+    // Latency samples kept per provider, and how many are needed before they are trusted
+    static final int LATENCY_WINDOW = 100;
+    static final int MIN_SAMPLES = 10;
+
+    private final List<ProviderState> providers;
+    private final ApiConfig.Images config;
+
+    public ImageProviderRouter(List<ImageProvider> providers, ApiConfig.Images config) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one image provider is required");
+        }
+        this.providers = providers.stream().map(ProviderState::new).toList();
+        this.config = config;
+    }
+
+    public byte[] generate(String prompt) {
+        List<ProviderState> chosen = choose();
+        if (chosen.isEmpty()) {
+            throw new RuntimeException("Error generating image: every image provider is failing");
+        }
+        ProviderState primary = chosen.get(0);
+        if (chosen.size() < 2) {
+            try {
+                return attempt(primary, prompt).block();
+            } catch (RuntimeException e) {
+                logger.error("Image generation failed on {}", primary.provider.name(), e);
+                throw new RuntimeException("Error generating image", e);
+            }
+        }
+        ProviderState secondary = chosen.get(1);
+        Duration hedgeDelay = primary.hedgeDelay(config.hedgePercentile(), config.defaultHedgeDelay());
+
+        // The hedge starts after hedgeDelay, or straight away if the primary fails before that
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+        Mono<byte[]> first = attempt(primary, prompt)
+                .doOnError(e -> primaryFailed.tryEmitEmpty());
+        // If the primary answers before the hedge is sent, give back a trial slot the secondary may hold
+        Mono<byte[]> hedge = Mono.firstWithSignal(Mono.delay(hedgeDelay).then(), primaryFailed.asMono())
+                .then(Mono.defer(() -> {
+                    logger.info("Hedging image request to {} after {} ms", secondary.provider.name(), hedgeDelay.toMillis());
+                    return attempt(secondary, prompt);
+                }))
+                .doOnCancel(secondary::release);
+
+        try {
+            return Mono.firstWithValue(first, hedge).block();
+        } catch (RuntimeException e) {
+            logger.error("Image generation failed on {} and {}", primary.provider.name(), secondary.provider.name(), e);
+            throw new RuntimeException("Error generating image", e);
+        }
+    }
+
+    // Up to two providers, fastest first; providers without enough samples yet keep their configured order
+    private List<ProviderState> choose() {
+        // Medians are read once up front, since they can change while sorting
+        long[] medians = new long[providers.size()];
+        Integer[] order = new Integer[providers.size()];
+        for (int i = 0; i < order.length; i++) {
+            medians[i] = providers.get(i).medianNanos();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> medians[i]));
+
+        List<ProviderState> chosen = new ArrayList<>(2);
+        for (int i = 0; i < order.length && chosen.size() < 2; i++) {
+            ProviderState state = providers.get(order[i]);
+            if (state.tryAcquire()) {
+                chosen.add(state);
+            }
+        }
+        return chosen;
+    }
+
+    private Mono<byte[]> attempt(ProviderState state, String prompt) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return state.provider.generate(prompt)
+                    .timeout(config.timeout())
+                    .doOnSuccess(bytes -> state.recordSuccess(System.nanoTime() - started))
+                    .doOnError(e -> state.recordFailure(e, config.failureThreshold(), config.openDuration()))
+                    .doOnCancel(state::release);
+        });
+    }
+
+    ProviderStats stats(String name) {
+        return providers.stream()
+                .filter(state -> state.provider.name().equals(name))
+                .findFirst()
+                .map(ProviderState::snapshot)
+                .orElseThrow();
+    }
+
+    record ProviderStats(int samples, long failures, boolean open) {}
+
+    private static final class ProviderState {
+        private final ImageProvider provider;
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int samples;
+        private int next;
+        private long failures;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean open;
+        private boolean trialInFlight;
+
+        ProviderState(ImageProvider provider) {
+            this.provider = provider;
+        }
+
+        // Closed: always. Open: never until openDuration has passed, then one trial request at a time
+        synchronized boolean tryAcquire() {
+            if (!open) {
+                return true;
+            }
+            if (System.nanoTime() - openUntil < 0 || trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+
+        synchronized void recordSuccess(long nanos) {
+            latencies[next] = nanos;
+            next = (next + 1) % LATENCY_WINDOW;
+            samples = Math.min(samples + 1, LATENCY_WINDOW);
+            consecutiveFailures = 0;
+            if (open) {
+                logger.info("Image provider {} recovered, closing its circuit", provider.name());
+            }
+            open = false;
+            trialInFlight = false;
+        }
+
+        synchronized void recordFailure(Throwable error, int failureThreshold, Duration openDuration) {
+            failures++;
+            consecutiveFailures++;
+            if (trialInFlight || consecutiveFailures >= failureThreshold) {
+                if (!open) {
+                    logger.warn("Image provider {} failed {} times in a row, skipping it for {}s: {}",
+                            provider.name(), consecutiveFailures, openDuration.toSeconds(), error.getMessage());
+                }
+                open = true;
+                openUntil = System.nanoTime() + openDuration.toNanos();
+            }
+            trialInFlight = false;
+        }
+
+        // A cancelled trial (the other request won) says nothing about this provider
+        synchronized void release() {
+            trialInFlight = false;
+        }
+
+        synchronized long medianNanos() {
+            return samples < MIN_SAMPLES ? 0 : percentileNanos(0.5);
+        }
+
+        synchronized Duration hedgeDelay(double percentile, Duration fallback) {
+            return samples < MIN_SAMPLES ? fallback : Duration.ofNanos(percentileNanos(percentile));
+        }
+
+        private long percentileNanos(double percentile) {
+            long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * samples) - 1;
+            return sorted[Math.max(0, Math.min(index, samples - 1))];
+        }
+
+        synchronized ProviderStats snapshot() {
+            return new ProviderStats(samples, failures, open);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.storyweaver.api.panel;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record LatestPanelRow(UUID roomId, Long id, Instant createdAt, String prompt, String imageUrl, UUID authorId) {
+}
@@ -9,11 +9,13 @@ import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "panels")
+@Table(name = "panels", indexes = @Index(name = "idx_panels_room_created", columnList = "room_id, created_at"))
 public class Panel {
 
+    // Pooled sequence ids let Hibernate batch inserts; see data-postgresql.sql for the one-time alignment
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "panels_seq")
+    @SequenceGenerator(name = "panels_seq", sequenceName = "panels_seq", allocationSize = 50)
     private Long id;
 
     @CreationTimestamp // Add this annotation
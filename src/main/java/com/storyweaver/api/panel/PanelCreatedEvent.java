@@ -0,0 +1,8 @@
+package com.storyweaver.api.panel;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Published inside the transaction that inserts the panel; listeners that need the row to be visible run after commit
+public record PanelCreatedEvent(Long panelId, UUID roomId, String prompt, Instant createdAt) {
+}
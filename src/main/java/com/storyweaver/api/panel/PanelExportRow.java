@@ -0,0 +1,8 @@
+package com.storyweaver.api.panel;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Read-only row for story exports, so streamed panels never enter the persistence context
+public record PanelExportRow(Long id, Instant createdAt, String prompt, String imageUrl, UUID authorId) {
+}
@@ -1,10 +1,18 @@
 package com.storyweaver.api.panel;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PanelRepository extends JpaRepository<Panel, Long> {
@@ -12,4 +20,38 @@ public interface PanelRepository extends JpaRepository<Panel, Long> {
     List<Panel> findByRoomIdOrderByCreatedAtAsc(UUID roomId);
 
     List<Panel> findTop3ByRoomIdOrderByCreatedAtDesc(UUID roomId);
-}
\ No newline at end of file
+
+    @Query("select new com.storyweaver.api.panel.PanelView(p.id, p.createdAt, p.prompt, p.imageUrl, p.roomId, p.authorId) "
+            + "from Panel p where p.roomId = :roomId order by p.createdAt asc")
+    List<PanelView> findViewsByRoomId(@Param("roomId") UUID roomId);
+
+    @Query("select new com.storyweaver.api.panel.PanelView(p.id, p.createdAt, p.prompt, p.imageUrl, p.roomId, p.authorId) "
+            + "from Panel p where p.id in :ids")
+    List<PanelView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // One row per room: the panel with the newest created_at
+    @Query("select new com.storyweaver.api.panel.LatestPanelRow(p.roomId, p.id, p.createdAt, p.prompt, p.imageUrl, p.authorId) "
+            + "from Panel p where p.roomId in :roomIds "
+            + "and p.createdAt = (select max(p2.createdAt) from Panel p2 where p2.roomId = p.roomId)")
+    List<LatestPanelRow> findLatestRowsByRoomIdIn(@Param("roomIds") Collection<UUID> roomIds);
+
+    // Must be consumed inside a transaction; the fetch size keeps the driver from buffering the whole room
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "50"))
+    @Query("select new com.storyweaver.api.panel.PanelExportRow(p.id, p.createdAt, p.prompt, p.imageUrl, p.authorId) "
+            + "from Panel p where p.roomId = :roomId order by p.createdAt asc")
+    Stream<PanelExportRow> streamExportRowsByRoomId(@Param("roomId") UUID roomId);
+
+    // Feeds the search index at startup, oldest first so the index evicts the oldest; same transaction
+    // and fetch size rules as the export stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.storyweaver.api.panel.PanelSearchRow(p.id, p.roomId, p.prompt, p.createdAt) "
+            + "from Panel p order by p.createdAt asc, p.id asc")
+    Stream<PanelSearchRow> streamSearchRows();
+
+    // Panels committed since the last search index catch-up, including those created on other instances
+    @Query("select new com.storyweaver.api.panel.PanelSearchRow(p.id, p.roomId, p.prompt, p.createdAt) "
+            + "from Panel p where p.createdAt >= :since order by p.createdAt asc, p.id asc")
+    List<PanelSearchRow> findSearchRowsCreatedSince(@Param("since") Instant since);
+
+    boolean existsByRoomId(UUID roomId);
+}
@@ -0,0 +1,7 @@
+package com.storyweaver.api.panel;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record PanelSearchRow(Long id, UUID roomId, String prompt, Instant createdAt) {
+}
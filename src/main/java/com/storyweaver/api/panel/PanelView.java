@@ -0,0 +1,8 @@
+package com.storyweaver.api.panel;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Read-only projection of Panel; serializes to the same JSON as the entity
+public record PanelView(Long id, Instant createdAt, String prompt, String imageUrl, UUID roomId, UUID authorId) {
+}
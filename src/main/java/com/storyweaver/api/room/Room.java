@@ -3,11 +3,14 @@ package com.storyweaver.api.room;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp; // Import this
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.Instant;
 import java.util.UUID;
 
 @Data
 @Entity
+// Updates write only the changed columns, so an activity flush and a turn change don't overwrite each other
+@DynamicUpdate
 @Table(name = "rooms")
 public class Room {
 
@@ -26,6 +29,14 @@ public class Room {
     private UUID currentTurnUserId;        // ** ADD THIS LINE **
 
 
+    // Seconds each player gets before their turn is skipped; null uses api.turns.default-timeout, 0 turns it off
+    @Column(name = "turn_timeout_seconds")
+    private Integer turnTimeoutSeconds;
+
+    // When the current turn is skipped; null while there is nobody to pass the turn to
+    @Column(name = "turn_deadline_at")
+    private Instant turnDeadlineAt;
+
     @Column(name = "last_activity_at")
     private java.time.Instant lastActivityAt;
 
@@ -0,0 +1,18 @@
+package com.storyweaver.api.room;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Everything needed to put an archived room back into the hot tables. Stored as gzipped
+ * JSON in object storage; images are not copied, only their URLs.
+ */
+public record RoomArchive(int version, Instant archivedAt, RoomView room, List<Member> members, List<Panel> panels) {
+
+    public static final int CURRENT_VERSION = 1;
+
+    public record Member(Long id, UUID userId, Instant joinedAt) {}
+
+    public record Panel(Long id, Instant createdAt, String prompt, String imageUrl, UUID authorId) {}
+}
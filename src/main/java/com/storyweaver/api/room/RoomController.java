@@ -1,112 +1,125 @@
 package com.storyweaver.api.room;
 
 import com.storyweaver.api.service.AuthHelper;
+import com.storyweaver.api.service.RoomArchiveService;
+import com.storyweaver.api.service.RoomService;
+import com.storyweaver.api.service.RoomSummaryService;
+import com.storyweaver.api.service.StoryExportService;
+import com.storyweaver.api.service.TurnService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.security.SecureRandom;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/rooms")
 public class RoomController {
 
     private final RoomRepository roomRepository;
-    private final RoomMembershipRepository roomMembershipRepository;
     private final AuthHelper authHelper;
+    private final StoryExportService storyExportService;
+    private final RoomSummaryService roomSummaryService;
+    private final RoomArchiveService roomArchiveService;
+    private final TurnService turnService;
+    private final RoomService roomService;
 
     public RoomController(
             RoomRepository roomRepository,
-            RoomMembershipRepository roomMembershipRepository,
-            AuthHelper authHelper
+            AuthHelper authHelper,
+            StoryExportService storyExportService,
+            RoomSummaryService roomSummaryService,
+            RoomArchiveService roomArchiveService,
+            TurnService turnService,
+            RoomService roomService
     ) {
         this.roomRepository = roomRepository;
-        this.roomMembershipRepository = roomMembershipRepository;
         this.authHelper = authHelper;
+        this.storyExportService = storyExportService;
+        this.roomSummaryService = roomSummaryService;
+        this.roomArchiveService = roomArchiveService;
+        this.turnService = turnService;
+        this.roomService = roomService;
     }
 
     @PostMapping
     public ResponseEntity<Room> createRoom() {
         // This method is correct.
         UUID currentUserId = authHelper.getCurrentUserId();
-        Room newRoom = new Room();
-        newRoom.setCurrentTurnUserId(currentUserId);
-        newRoom.setCode(generateUniqueRoomCode());
-        Room savedRoom = roomRepository.save(newRoom);
-
-        RoomMembership membership = new RoomMembership();
-        membership.setRoomId(savedRoom.getId());
-        membership.setUserId(currentUserId);
-        roomMembershipRepository.save(membership);
-
-        return ResponseEntity.ok(savedRoom);
+        return ResponseEntity.ok(roomService.createRoom(currentUserId));
     }
 
     @PostMapping("/join/{code}")
     public ResponseEntity<Room> joinRoomByCode(@PathVariable String code) {
         // This method is correct.
-        Room room = roomRepository.findByCode(code.toUpperCase())
-                .orElseThrow(() -> new RuntimeException("Room not found with this code"));
-        return joinRoomById(room.getId());
+        UUID currentUserId = authHelper.getCurrentUserId();
+        return ResponseEntity.ok(roomService.joinRoomByCode(code, currentUserId));
     }
 
     @PostMapping("/{roomId}/join")
     public ResponseEntity<Room> joinRoomById(@PathVariable UUID roomId) {
         UUID currentUserId = authHelper.getCurrentUserId();
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        if (roomMembershipRepository.findByRoomIdAndUserId(roomId, currentUserId).isPresent()) {
-            return ResponseEntity.ok(room);
-        }
-
-        // ** THIS IS THE FIX for "Provided UUID required Long" **
-        // We use the correct repository method to find members by the room's ID.
-        List<RoomMembership> members = roomMembershipRepository.findByRoomIdOrderByJoinedAtAsc(roomId);
-        if (members.size() >= 5) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
-        }
+        return ResponseEntity.ok(roomService.joinRoom(roomId, currentUserId));
+    }
 
-        RoomMembership newMembership = new RoomMembership();
-        newMembership.setRoomId(roomId);
-        newMembership.setUserId(currentUserId);
-        roomMembershipRepository.save(newMembership);
-        return ResponseEntity.ok(room);
+    @PutMapping("/{roomId}/turn-timeout")
+    public ResponseEntity<Room> setTurnTimeout(@PathVariable UUID roomId, @RequestBody TurnTimeoutRequest request) {
+        UUID currentUserId = authHelper.getCurrentUserId();
+        return ResponseEntity.ok(turnService.setTurnTimeout(roomId, currentUserId, request.seconds()));
     }
 
     // ** THIS IS THE MISSING METHOD that fixes the 403 error **
     @GetMapping("/{roomId}")
     public ResponseEntity<RoomStateDto> getRoomState(@PathVariable UUID roomId) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        return ResponseEntity.ok(roomService.getRoomState(roomId));
+    }
 
-        List<RoomMembership> memberships = roomMembershipRepository.findByRoomIdOrderByJoinedAtAsc(roomId);
-        List<UUID> memberIds = memberships.stream()
-                .map(RoomMembership::getUserId)
-                .collect(Collectors.toList());
+    // Old story links point at rooms the cleanup job may have archived; the client calls this
+    // when getRoomState fails and retries the read once the room is back
+    @PostMapping("/{roomId}/restore")
+    public ResponseEntity<RoomStateDto> restoreRoom(@PathVariable UUID roomId) {
+        try {
+            return roomArchiveService.restore(roomId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (DataIntegrityViolationException e) {
+            // Another request restored the room first
+            return getRoomState(roomId);
+        }
+    }
 
-        RoomStateDto roomState = new RoomStateDto(room, memberIds);
-        return ResponseEntity.ok(roomState);
+    // Lobby view: summaries for a list of room ids in a fixed number of queries
+    @PostMapping("/batch")
+    public ResponseEntity<List<RoomSummaryDto>> getRoomSummaries(@RequestBody List<UUID> roomIds) {
+        if (roomIds == null || roomIds.size() > RoomSummaryService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(roomSummaryService.getSummaries(roomIds));
     }
 
-    // Helper methods for code generation (these are correct)
-    private String generateUniqueRoomCode() {
-        String code;
-        do {
-            code = generateRandomCode(6);
-        } while (roomRepository.findByCode(code).isPresent());
-        return code;
+    @GetMapping("/mine")
+    public ResponseEntity<List<RoomSummaryDto>> getMyRooms() {
+        UUID currentUserId = authHelper.getCurrentUserId();
+        return ResponseEntity.ok(roomSummaryService.getSummariesForMember(currentUserId));
     }
 
-    private String generateRandomCode(int length) {
-        final String CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        SecureRandom random = new SecureRandom();
-        return random.ints(length, 0, CHARS.length())
-                .mapToObj(CHARS::charAt)
-                .map(Object::toString)
-                .collect(Collectors.joining());
+    // Streams every panel image in order plus a manifest.json of prompts and authors
+    @GetMapping("/{roomId}/export")
+    public ResponseEntity<StreamingResponseBody> exportRoom(@PathVariable UUID roomId, HttpServletRequest request) {
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+
+        return storyExportService.openExport(roomId, request)
+                .map(body -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("application/zip"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"story-" + room.getCode() + ".zip\"")
+                        .body(body))
+                .orElse(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
     }
 }
\ No newline at end of file
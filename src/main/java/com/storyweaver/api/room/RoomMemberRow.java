@@ -0,0 +1,6 @@
+package com.storyweaver.api.room;
+
+import java.util.UUID;
+
+public record RoomMemberRow(UUID roomId, UUID userId) {
+}
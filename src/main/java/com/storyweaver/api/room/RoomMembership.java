@@ -2,17 +2,26 @@ package com.storyweaver.api.room;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import java.time.Instant;
 import java.util.UUID;
 
 @Data
 @Entity
-@Table(name = "room_memberships")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "room_memberships", indexes = {
+        @Index(name = "idx_room_memberships_room_joined", columnList = "room_id, joined_at"),
+        @Index(name = "idx_room_memberships_user", columnList = "user_id")
+})
 public class RoomMembership {
 
+    // Pooled sequence ids let Hibernate batch inserts; see data-postgresql.sql for the one-time alignment
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_memberships_seq")
+    @SequenceGenerator(name = "room_memberships_seq", sequenceName = "room_memberships_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "room_id")
@@ -1,8 +1,11 @@
 package com.storyweaver.api.room;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,4 +14,14 @@ import java.util.UUID;
 public interface RoomMembershipRepository extends JpaRepository<RoomMembership, Long> {
     List<RoomMembership> findByRoomIdOrderByJoinedAtAsc(UUID roomId);
     Optional<RoomMembership> findByRoomIdAndUserId(UUID roomId, UUID userId);
-}
\ No newline at end of file
+
+    // Membership changes on other instances too, so none of these are query-cached
+    @Query("select m.userId from RoomMembership m where m.roomId = :roomId order by m.joinedAt asc")
+    List<UUID> findMemberIdsByRoomId(@Param("roomId") UUID roomId);
+
+    @Query("select new com.storyweaver.api.room.RoomMemberRow(m.roomId, m.userId) "
+            + "from RoomMembership m where m.roomId in :roomIds order by m.joinedAt asc")
+    List<RoomMemberRow> findMemberRowsByRoomIdIn(@Param("roomIds") Collection<UUID> roomIds);
+
+    boolean existsByRoomId(UUID roomId);
+}
@@ -1,8 +1,15 @@
 package com.storyweaver.api.room;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,4 +21,56 @@ public interface RoomRepository extends JpaRepository<Room, UUID> {
     
     // Find rooms where last_activity_at is older than the threshold
     List<Room> findByLastActivityAtBefore(Instant threshold);
-}
\ No newline at end of file
+
+    // Joins hold a shared lock until they commit, so cleanup either sees the new membership or the join finds no room
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select r from Room r where r.id = :id")
+    Optional<Room> findByIdForJoin(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select r from Room r where r.code = :code")
+    Optional<Room> findByCodeForJoin(@Param("code") String code);
+
+    // Taken just before a panel is inserted; the turn update that follows needs this row lock anyway
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r.id from Room r where r.id = :id")
+    Optional<UUID> lockById(@Param("id") UUID id);
+
+    // Locks the room for cleanup, and finds nothing if it has seen activity since it was listed as stale
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id = :id and r.lastActivityAt < :threshold")
+    Optional<Room> findStaleForUpdate(@Param("id") UUID id, @Param("threshold") Instant threshold);
+
+    // Not query-cached: turns and joins on another instance would not evict it here
+    @Query("select new com.storyweaver.api.room.RoomView(r.id, r.createdAt, r.code, r.currentTurnUserId, "
+            + "r.turnTimeoutSeconds, r.turnDeadlineAt, r.lastActivityAt) from Room r where r.id = :id")
+    Optional<RoomView> findViewById(@Param("id") UUID id);
+
+    @Query("select new com.storyweaver.api.room.RoomSummaryRow(r.id, r.code, r.currentTurnUserId, r.lastActivityAt) "
+            + "from Room r where r.id in :ids")
+    List<RoomSummaryRow> findSummaryRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select new com.storyweaver.api.room.RoomSummaryRow(r.id, r.code, r.currentTurnUserId, r.lastActivityAt) "
+            + "from Room r where r.id in (select m.roomId from RoomMembership m where m.userId = :userId) "
+            + "order by r.lastActivityAt desc")
+    List<RoomSummaryRow> findSummaryRowsByMemberId(@Param("userId") UUID userId);
+
+    @Query("select new com.storyweaver.api.room.RoomTurnDeadline(r.id, r.turnDeadlineAt) "
+            + "from Room r where r.turnDeadlineAt is not null")
+    List<RoomTurnDeadline> findTurnDeadlines();
+
+    // Starts the clock only if it isn't running, so two joins at once can't both start it. Clears the persistence
+    // context afterwards so a room loaded earlier in the transaction is not flushed back over the new deadline
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("update Room r set r.turnDeadlineAt = :deadline where r.id = :id and r.turnDeadlineAt is null")
+    int startTurnClock(@Param("id") UUID id, @Param("deadline") Instant deadline);
+
+    // Skips the turn only if nobody has moved it on since the deadline was set
+    @Modifying
+    @Transactional
+    @Query("update Room r set r.currentTurnUserId = :nextUserId, r.turnDeadlineAt = :nextDeadline "
+            + "where r.id = :id and r.currentTurnUserId = :currentUserId and r.turnDeadlineAt = :deadline")
+    int skipTurn(@Param("id") UUID id, @Param("currentUserId") UUID currentUserId, @Param("deadline") Instant deadline,
+            @Param("nextUserId") UUID nextUserId, @Param("nextDeadline") Instant nextDeadline);
+}
@@ -9,6 +9,6 @@ import java.util.UUID;
 @Data
 @AllArgsConstructor
 public class RoomStateDto {
-    private Room room;
+    private RoomView room;
     private List<UUID> members;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.storyweaver.api.room;
+
+import com.storyweaver.api.panel.LatestPanelRow;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Compact lobby/dashboard view of a room; latestPanel is null until the first panel is created
+public record RoomSummaryDto(
+        UUID id,
+        String code,
+        UUID currentTurnUserId,
+        Instant lastActivityAt,
+        List<UUID> members,
+        LatestPanelRow latestPanel) {
+}
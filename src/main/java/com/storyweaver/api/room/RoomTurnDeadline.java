@@ -0,0 +1,7 @@
+package com.storyweaver.api.room;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record RoomTurnDeadline(UUID roomId, Instant deadline) {
+}
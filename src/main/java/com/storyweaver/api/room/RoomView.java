@@ -0,0 +1,9 @@
+package com.storyweaver.api.room;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Read-only projection of Room; serializes to the same JSON as the entity
+public record RoomView(UUID id, Instant createdAt, String code, UUID currentTurnUserId,
+        Integer turnTimeoutSeconds, Instant turnDeadlineAt, Instant lastActivityAt) {
+}
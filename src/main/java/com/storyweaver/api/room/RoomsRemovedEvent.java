@@ -0,0 +1,8 @@
+package com.storyweaver.api.room;
+
+import java.util.List;
+import java.util.UUID;
+
+// Published by the cleanup job once rooms (and their panels) are gone from the hot tables
+public record RoomsRemovedEvent(List<UUID> roomIds) {
+}
@@ -0,0 +1,5 @@
+package com.storyweaver.api.room;
+
+// null restores the server default, 0 turns turn timeouts off for the room
+public record TurnTimeoutRequest(Integer seconds) {
+}
@@ -0,0 +1,133 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.config.ApiConfig;
+import com.storyweaver.api.panel.CreatePanelRequest;
+import com.storyweaver.api.panel.Panel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses retried POST /api/panels calls that carry the same Idempotency-Key.
+ * <p>
+ * The first request runs the generation; duplicates that arrive while it is in flight
+ * wait for the same result, and duplicates that arrive after it finished get the stored
+ * Panel back for {@code api.idempotency.retention}. A failed generation is forgotten so
+ * the client can retry it, and a duplicate gives up with 409 after {@code waitTimeout}.
+ * Keys are scoped per user and kept in memory on this instance.
+ */
+@Service
+public class PanelIdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PanelIdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Duration retention;
+    private final Duration waitTimeout;
+
+    public PanelIdempotencyService(ApiConfig apiConfig) {
+        this.retention = apiConfig.idempotency().retention();
+        this.waitTimeout = apiConfig.idempotency().waitTimeout();
+    }
+
+    public record Outcome(Panel panel, boolean replayed) {}
+
+    public Outcome execute(UUID userId, String key, CreatePanelRequest request, Supplier<Panel> generation) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+        }
+        String scopedKey = userId + ":" + key;
+        Entry entry = new Entry(request);
+
+        while (true) {
+            Entry existing = entries.putIfAbsent(scopedKey, entry);
+            if (existing == null) {
+                return new Outcome(run(scopedKey, entry, generation), false);
+            }
+            if (existing.isExpired(Instant.now(), retention)) {
+                entries.remove(scopedKey, existing);
+                continue;
+            }
+            if (!existing.matches(request)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request");
+            }
+            logger.info("Joining existing panel generation for idempotency key {}", key);
+            return new Outcome(await(existing), true);
+        }
+    }
+
+    // Errors included: a key left in flight would make every retry wait on it
+    private Panel run(String scopedKey, Entry entry, Supplier<Panel> generation) {
+        try {
+            Panel panel = generation.get();
+            entry.completedAt = Instant.now();
+            entry.result.complete(panel);
+            return panel;
+        } catch (Throwable e) {
+            entries.remove(scopedKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Panel await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Panel generation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for panel");
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> entry.isExpired(now, retention));
+    }
+
+    private static final class Entry {
+        private final UUID roomId;
+        private final String prompt;
+        private final CompletableFuture<Panel> result = new CompletableFuture<>();
+        private volatile Instant completedAt;
+
+        Entry(CreatePanelRequest request) {
+            this.roomId = request.roomId();
+            this.prompt = request.prompt();
+        }
+
+        boolean matches(CreatePanelRequest request) {
+            return Objects.equals(roomId, request.roomId()) && Objects.equals(prompt, request.prompt());
+        }
+
+        boolean isExpired(Instant now, Duration retention) {
+            Instant completed = completedAt;
+            return completed != null && completed.plus(retention).isBefore(now);
+        }
+    }
+}
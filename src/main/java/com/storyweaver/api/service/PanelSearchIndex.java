@@ -0,0 +1,338 @@
+package com.storyweaver.api.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Inverted index from prompt terms to panels.
+ * <p>
+ * Each panel gets a document number in the order it is added. Posting lists hold document
+ * numbers delta-encoded as varints, which usually costs one or two bytes per entry because new
+ * documents always have the highest number. Removed documents are only marked; once they make
+ * up a quarter of the index the posting lists are rewritten without them. When the index holds
+ * {@code maxDocuments} panels the earliest added are dropped to make room.
+ * <p>
+ * Results are ranked by the panel's creation time rather than by document number, since panels
+ * indexed late (a restored room, or a panel picked up from another instance) are not new.
+ */
+public class PanelSearchIndex {
+
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 32;
+    // A short prefix can match thousands of terms; only the first ones are searched
+    static final int MAX_PREFIX_EXPANSION = 512;
+    private static final int MIN_DELETED_BEFORE_COMPACTION = 1024;
+
+    private final int maxDocuments;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<UUID, IntList> documentsByRoom = new HashMap<>();
+    private long[] panelIds = new long[1024];
+    private long[] createdAtMillis = new long[1024];
+    private int documentCount;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int oldestCandidate;
+
+    public PanelSearchIndex(int maxDocuments) {
+        this.maxDocuments = maxDocuments;
+    }
+
+    public void add(long panelId, UUID roomId, String prompt, Instant createdAt) {
+        Set<String> terms = tokenize(prompt);
+        lock.writeLock().lock();
+        try {
+            if (documentCount - deletedCount >= maxDocuments) {
+                evictOldest();
+            }
+            int document = documentCount++;
+            if (document == panelIds.length) {
+                panelIds = Arrays.copyOf(panelIds, panelIds.length * 2);
+                createdAtMillis = Arrays.copyOf(createdAtMillis, createdAtMillis.length * 2);
+            }
+            panelIds[document] = panelId;
+            createdAtMillis[document] = createdAt.toEpochMilli();
+            documentsByRoom.computeIfAbsent(roomId, id -> new IntList()).add(document);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeRooms(Collection<UUID> roomIds) {
+        lock.writeLock().lock();
+        try {
+            for (UUID roomId : roomIds) {
+                IntList documents = documentsByRoom.remove(roomId);
+                if (documents != null) {
+                    documents.forEach(this::markDeleted);
+                }
+            }
+            if (deletedCount >= MIN_DELETED_BEFORE_COMPACTION && deletedCount * 4 >= documentCount) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Panel ids matching every term of the query, most recently created first. A term ending in
+     * {@code *} matches any term starting with it.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = new ArrayList<>();
+        List<Boolean> prefixes = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            List<String> tokens = new ArrayList<>(tokenize(word));
+            for (int i = 0; i < tokens.size(); i++) {
+                terms.add(tokens.get(i));
+                prefixes.add(word.endsWith("*") && i == tokens.size() - 1);
+            }
+        }
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = null;
+            for (int i = 0; i < terms.size(); i++) {
+                BitSet termMatches = prefixes.get(i) ? matchPrefix(terms.get(i)) : matchTerm(terms.get(i));
+                if (matches == null) {
+                    matches = termMatches;
+                } else {
+                    matches.and(termMatches);
+                }
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+            }
+            matches.andNot(deleted);
+
+            // Keep the newest `limit` matches in a min-heap, then read it back newest first
+            Comparator<Integer> byCreation = Comparator.<Integer>comparingLong(document -> createdAtMillis[document])
+                    .thenComparingInt(document -> document);
+            PriorityQueue<Integer> newest = new PriorityQueue<>(Math.min(limit, matches.cardinality()) + 1, byCreation);
+            for (int document = matches.nextSetBit(0); document >= 0; document = matches.nextSetBit(document + 1)) {
+                newest.add(document);
+                if (newest.size() > limit) {
+                    newest.poll();
+                }
+            }
+            Long[] result = new Long[newest.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = panelIds[newest.poll()];
+            }
+            return Arrays.asList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (token.length() >= MIN_TERM_LENGTH) {
+                terms.add(token.length() > MAX_TERM_LENGTH ? token.substring(0, MAX_TERM_LENGTH) : token);
+            }
+        }
+        return terms;
+    }
+
+    private BitSet matchTerm(String term) {
+        BitSet matches = new BitSet(documentCount);
+        PostingList list = postings.get(term);
+        if (list != null) {
+            list.forEach(matches::set);
+        }
+        return matches;
+    }
+
+    private BitSet matchPrefix(String prefix) {
+        BitSet matches = new BitSet(documentCount);
+        NavigableMap<String, PostingList> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        Iterator<PostingList> lists = range.values().iterator();
+        for (int i = 0; i < MAX_PREFIX_EXPANSION && lists.hasNext(); i++) {
+            lists.next().forEach(matches::set);
+        }
+        return matches;
+    }
+
+    private void markDeleted(int document) {
+        if (!deleted.get(document)) {
+            deleted.set(document);
+            deletedCount++;
+        }
+    }
+
+    private void evictOldest() {
+        while (oldestCandidate < documentCount && deleted.get(oldestCandidate)) {
+            oldestCandidate++;
+        }
+        if (oldestCandidate < documentCount) {
+            markDeleted(oldestCandidate);
+        }
+        // Amortized: once a quarter of the index is dead, rewrite it in one pass
+        if (deletedCount >= MIN_DELETED_BEFORE_COMPACTION && deletedCount * 4 >= documentCount) {
+            compact();
+        }
+    }
+
+    // Renumbers the live documents densely and rewrites every posting list without the dead ones
+    private void compact() {
+        int[] renumbered = new int[documentCount];
+        int live = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                renumbered[document] = live;
+                panelIds[live] = panelIds[document];
+                createdAtMillis[live] = createdAtMillis[document];
+                live++;
+            }
+        }
+
+        Iterator<PostingList> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            PostingList list = lists.next();
+            PostingList rewritten = new PostingList();
+            list.forEach(document -> {
+                if (renumbered[document] >= 0) {
+                    rewritten.add(renumbered[document]);
+                }
+            });
+            if (rewritten.isEmpty()) {
+                lists.remove();
+            } else {
+                list.replaceWith(rewritten);
+            }
+        }
+
+        Iterator<IntList> rooms = documentsByRoom.values().iterator();
+        while (rooms.hasNext()) {
+            IntList documents = rooms.next();
+            IntList remaining = new IntList();
+            documents.forEach(document -> {
+                if (renumbered[document] >= 0) {
+                    remaining.add(renumbered[document]);
+                }
+            });
+            if (remaining.size == 0) {
+                rooms.remove();
+            } else {
+                documents.replaceWith(remaining);
+            }
+        }
+
+        documentCount = live;
+        deleted.clear();
+        deletedCount = 0;
+        oldestCandidate = 0;
+    }
+
+    /**
+     * Ascending document numbers stored as varint-encoded gaps.
+     */
+    static final class PostingList {
+        private byte[] bytes = new byte[4];
+        private int length;
+        private int last;
+
+        void add(int document) {
+            int gap = document - last;
+            last = document;
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+            }
+            while ((gap & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            bytes[length++] = (byte) gap;
+        }
+
+        void forEach(IntConsumer consumer) {
+            int document = 0;
+            int position = 0;
+            while (position < length) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                document += gap;
+                consumer.accept(document);
+            }
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+
+        private void replaceWith(PostingList other) {
+            bytes = Arrays.copyOf(other.bytes, other.length);
+            length = other.length;
+            last = other.last;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void forEach(IntConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(values[i]);
+            }
+        }
+
+        private void replaceWith(IntList other) {
+            values = Arrays.copyOf(other.values, Math.max(other.size, 1));
+            size = other.size;
+        }
+    }
+}
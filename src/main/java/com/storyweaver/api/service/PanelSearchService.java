@@ -0,0 +1,154 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.config.ApiConfig;
+import com.storyweaver.api.panel.PanelCreatedEvent;
+import com.storyweaver.api.panel.PanelRepository;
+import com.storyweaver.api.panel.PanelSearchRow;
+import com.storyweaver.api.room.RoomsRemovedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a {@link PanelSearchIndex} close to the panels table: filled from the DB once at
+ * startup, then updated as panels are committed and rooms are cleaned up on this instance.
+ * <p>
+ * Panels committed on other instances never reach this one as events, so a periodic catch-up
+ * reads every panel created since the previous one, going back {@link #CATCH_UP_OVERLAP} to
+ * cover commits that landed late or clocks that disagree. Ids indexed within that overlap are
+ * remembered so nothing is added twice. Rooms removed by another instance stay in the index
+ * until restart; their panels are dropped when search looks the ids up.
+ * <p>
+ * Changes that arrive while the startup build is still streaming are held back and applied
+ * when it finishes, so a panel is never indexed twice and a removed room doesn't come back.
+ */
+@Service
+public class PanelSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PanelSearchService.class);
+
+    public static final int MAX_RESULTS = 100;
+    static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(2);
+
+    private final PanelSearchIndex index;
+    private final PanelRepository panelRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Long, PanelCreatedEvent> pendingPanels = new HashMap<>();
+    private final Set<UUID> pendingRemovedRooms = new HashSet<>();
+    // Panels created since catchUpFrom, by id; anything older is never read by a catch-up again
+    private final Map<Long, Instant> recentlyIndexed = new ConcurrentHashMap<>();
+    private volatile Instant catchUpFrom = Instant.now().minus(CATCH_UP_OVERLAP);
+    private volatile boolean ready;
+
+    public PanelSearchService(ApiConfig apiConfig, PanelRepository panelRepository,
+            PlatformTransactionManager transactionManager) {
+        this.index = new PanelSearchIndex(apiConfig.search().maxDocuments());
+        this.panelRepository = panelRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Panel ids, most recently created first; empty until the startup build has finished
+    public List<Long> search(String query, int limit) {
+        return index.search(query, Math.min(limit, MAX_RESULTS));
+    }
+
+    @TransactionalEventListener
+    public void onPanelCreated(PanelCreatedEvent event) {
+        synchronized (this) {
+            if (!ready) {
+                pendingPanels.put(event.panelId(), event);
+                return;
+            }
+        }
+        addOnce(event.panelId(), event.roomId(), event.prompt(), event.createdAt());
+    }
+
+    @TransactionalEventListener
+    public void onRoomsRemoved(RoomsRemovedEvent event) {
+        synchronized (this) {
+            if (!ready) {
+                pendingRemovedRooms.addAll(event.roomIds());
+                pendingPanels.values().removeIf(panel -> event.roomIds().contains(panel.roomId()));
+            }
+        }
+        index.removeRooms(event.roomIds());
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        long started = System.nanoTime();
+        // Panels committed elsewhere while the build streams are left to the first catch-up
+        catchUpFrom = Instant.now().minus(CATCH_UP_OVERLAP);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PanelSearchRow> rows = panelRepository.streamSearchRows()) {
+                rows.forEach(row -> {
+                    synchronized (this) {
+                        if (pendingPanels.containsKey(row.id()) || pendingRemovedRooms.contains(row.roomId())) {
+                            return;
+                        }
+                    }
+                    addOnce(row.id(), row.roomId(), row.prompt(), row.createdAt());
+                });
+            }
+        });
+        synchronized (this) {
+            pendingPanels.values().forEach(panel ->
+                    addOnce(panel.panelId(), panel.roomId(), panel.prompt(), panel.createdAt()));
+            pendingPanels.clear();
+            pendingRemovedRooms.clear();
+            ready = true;
+        }
+        logger.info("Panel search index built with {} panels in {} ms",
+                index.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${api.search.catch-up-interval:30s}")
+    public void catchUp() {
+        if (!ready) {
+            return;
+        }
+        Instant since = catchUpFrom;
+        Instant nextFrom = Instant.now().minus(CATCH_UP_OVERLAP);
+        List<PanelSearchRow> rows = readOnlyTransaction.execute(status -> panelRepository.findSearchRowsCreatedSince(since));
+        int added = 0;
+        for (PanelSearchRow row : rows) {
+            if (addOnce(row.id(), row.roomId(), row.prompt(), row.createdAt())) {
+                added++;
+            }
+        }
+        catchUpFrom = nextFrom;
+        recentlyIndexed.values().removeIf(createdAt -> createdAt.isBefore(nextFrom));
+        if (added > 0) {
+            logger.debug("Search index caught up with {} panels from other instances", added);
+        }
+    }
+
+    // Returns false if the panel was already indexed within the catch-up window
+    private boolean addOnce(long panelId, UUID roomId, String prompt, Instant createdAt) {
+        if (!createdAt.isBefore(catchUpFrom) && recentlyIndexed.putIfAbsent(panelId, createdAt) != null) {
+            return false;
+        }
+        index.add(panelId, roomId, prompt, createdAt);
+        return true;
+    }
+}
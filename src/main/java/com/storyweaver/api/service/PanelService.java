@@ -1,27 +1,31 @@
 package com.storyweaver.api.service;
 
 import com.storyweaver.api.config.ApiConfig;
+import com.storyweaver.api.image.ImageProviderRouter;
 import com.storyweaver.api.panel.Panel;
+import com.storyweaver.api.panel.PanelCreatedEvent;
 import com.storyweaver.api.panel.PanelRepository;
+import com.storyweaver.api.panel.PanelView;
 import com.storyweaver.api.room.Room;
-import com.storyweaver.api.room.RoomMembership;
-import com.storyweaver.api.room.RoomMembershipRepository;
 import com.storyweaver.api.room.RoomRepository;
+import com.storyweaver.api.storage.ObjectStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,8 +38,13 @@ public class PanelService {
     private final ApiConfig apiConfig;
     private final RestTemplate restTemplate;
     private final RoomRepository roomRepository;
-    private final RoomMembershipRepository roomMembershipRepository;
     private final AuthHelper authHelper;
+    private final ObjectStorage objectStorage;
+    private final RoomActivityTracker roomActivityTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageProviderRouter imageProviderRouter;
+    private final TurnService turnService;
+    private final PanelSearchService panelSearchService;
 
     // This is the correct constructor
     public PanelService(
@@ -43,8 +52,13 @@ public class PanelService {
             ApiConfig apiConfig,
             RestTemplateBuilder restTemplateBuilder,
             RoomRepository roomRepository,
-            RoomMembershipRepository roomMembershipRepository,
-            AuthHelper authHelper) {
+            AuthHelper authHelper,
+            ObjectStorage objectStorage,
+            RoomActivityTracker roomActivityTracker,
+            ApplicationEventPublisher eventPublisher,
+            ImageProviderRouter imageProviderRouter,
+            TurnService turnService,
+            PanelSearchService panelSearchService) {
         this.panelRepository = panelRepository;
         this.apiConfig = apiConfig;
         this.restTemplate = restTemplateBuilder
@@ -52,8 +66,13 @@ public class PanelService {
                 .readTimeout(Duration.ofSeconds(120))
                 .build();
         this.roomRepository = roomRepository;
-        this.roomMembershipRepository = roomMembershipRepository;
         this.authHelper = authHelper;
+        this.objectStorage = objectStorage;
+        this.roomActivityTracker = roomActivityTracker;
+        this.eventPublisher = eventPublisher;
+        this.imageProviderRouter = imageProviderRouter;
+        this.turnService = turnService;
+        this.panelSearchService = panelSearchService;
     }
 
     @Transactional // Ensures the whole method succeeds or fails together
@@ -85,111 +104,43 @@ public class PanelService {
 
         logger.info("Generated final prompt with context: '{}'", finalPrompt);
 
-        byte[] imageBytes = callPollinationsImageApi(finalPrompt);
-        String imageUrl = uploadToSupabaseStorage(imageBytes, roomId);
+        byte[] imageBytes = imageProviderRouter.generate(finalPrompt);
+        String imageUrl = objectStorage.storeImage(roomId, imageBytes);
 
         Panel newPanel = new Panel();
         newPanel.setPrompt(prompt); // Save the original, short prompt
         newPanel.setRoomId(roomId);
         newPanel.setImageUrl(imageUrl);
         newPanel.setAuthorId(currentUserId);
-        Panel savedPanel = panelRepository.save(newPanel);
-        room.setLastActivityAt(java.time.Instant.now());
-        advanceTurn(room);
-        logger.info("Updating room {} last activity to: {}", room.getId(), room.getLastActivityAt());
-        roomRepository.save(room);
+        // Locked only now, after the slow generation; cleanup can't remove the room under a new panel
+        roomRepository.lockById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+        // Flushed now so created_at, stamped on insert, is set for the search index event
+        Panel savedPanel = panelRepository.saveAndFlush(newPanel);
+        turnService.advanceTurn(room);
+        roomActivityTracker.touch(roomId);
+        eventPublisher.publishEvent(new PanelCreatedEvent(savedPanel.getId(), roomId, prompt, savedPanel.getCreatedAt()));
         return savedPanel;
     }
 
-    private void advanceTurn(Room room) {
-        List<RoomMembership> members = roomMembershipRepository.findByRoomIdOrderByJoinedAtAsc(room.getId());
-        if (members.size() <= 1) {
-            return; // Turn doesn't change if there's only one person
-        }
-
-        UUID currentTurnUserId = room.getCurrentTurnUserId();
-        int currentIndex = -1;
-        for (int i = 0; i < members.size(); i++) {
-            if (members.get(i).getUserId().equals(currentTurnUserId)) {
-                currentIndex = i;
-                break;
-            }
-        }
-
-        int nextIndex = (currentIndex + 1) % members.size();
-        UUID nextUserId = members.get(nextIndex).getUserId();
-
-        room.setCurrentTurnUserId(nextUserId);
-        roomRepository.save(room);
-        logger.info("Advanced turn in room {} to user {}", room.getId(), nextUserId);
-    }
-
-    private byte[] callPollinationsImageApi(String prompt) {
-        // The base URL for the Pollinations image generation API
-        String baseUrl = "https://image.pollinations.ai/prompt/";
-
-        try {
-            // URL-encode the prompt to handle spaces and special characters safely
-            String encodedPrompt = URLEncoder.encode(prompt, StandardCharsets.UTF_8.toString());
-
-            // Construct the full URL with parameters for image size and to remove the logo
-            String url = UriComponentsBuilder.fromHttpUrl(baseUrl + encodedPrompt)
-                    .queryParam("width", "1024")
-                    .queryParam("height", "1024")
-                    .queryParam("nologo", "true")
-                    .toUriString();
-
-            logger.info("Calling Pollinations API: {}", url);
-
-            // Make a simple GET request and get the image bytes directly
-            byte[] imageBytes = restTemplate.getForObject(url, byte[].class);
-
-            if (imageBytes == null || imageBytes.length == 0) {
-                throw new RuntimeException("Received empty or null image response from Pollinations API");
-            }
-            return imageBytes;
-
-        } catch (Exception e) {
-            logger.error("Error calling Pollinations API", e);
-            throw new RuntimeException("Error generating image via Pollinations API", e);
-        }
+    @Transactional(readOnly = true)
+    public List<PanelView> getPanelsForRoom(UUID roomId) {
+        return panelRepository.findViewsByRoomId(roomId);
     }
 
-    private String uploadToSupabaseStorage(byte[] imageBytes, UUID roomId) {
-        String bucketName = "panels";
-        String fileName = roomId.toString() + "/" + System.currentTimeMillis() + ".jpg";
-        String uploadPath = "/storage/v1/object/" + bucketName + "/" + fileName;
-        String fullUrl = apiConfig.supabase().url() + uploadPath;
-
-        try {
-            logger.info("Uploading image to Supabase: {}", fullUrl);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_JPEG);
-            headers.setBearerAuth(apiConfig.supabase().key());
-            headers.set("apikey", apiConfig.supabase().key());
-            headers.set("x-upsert", "true");
-            headers.setContentLength(imageBytes.length);
-
-            HttpEntity<byte[]> requestEntity = new HttpEntity<>(imageBytes, headers);
-
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    fullUrl,
-                    requestEntity,
-                    String.class);
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new RuntimeException(
-                        "Upload failed with status: " + response.getStatusCode() + " and body: " + response.getBody());
-            }
-
-            logger.info("Successfully uploaded to Supabase. Status: {}", response.getStatusCode());
-            return fullUrl;
-
-        } catch (Exception e) {
-            logger.error("Error uploading image to Supabase Storage", e);
-            throw new RuntimeException("Error uploading image to storage", e);
+    // Keeps the index's ranking; ids whose panel was deleted since indexing are dropped
+    @Transactional(readOnly = true)
+    public List<PanelView> searchPanels(String query, int limit) {
+        List<Long> panelIds = panelSearchService.search(query, limit);
+        if (panelIds.isEmpty()) {
+            return List.of();
         }
+        Map<Long, PanelView> views = panelRepository.findViewsByIdIn(panelIds).stream()
+                .collect(Collectors.toMap(PanelView::id, Function.identity()));
+        return panelIds.stream()
+                .map(views::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public String generateStoryContext(List<String> previousPrompts) {
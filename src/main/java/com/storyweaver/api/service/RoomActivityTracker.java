@@ -0,0 +1,103 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.room.Room;
+import com.storyweaver.api.room.RoomRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for {@code rooms.last_activity_at}.
+ * <p>
+ * Touches are coalesced in memory at minute granularity and written once per flush, so
+ * joins and state polls can count as activity without adding writes to the rooms table.
+ * The only reader is the stale-room sweep, which flushes first.
+ * <p>
+ * The write goes through the entities, batched and touching only the changed column thanks
+ * to {@code @DynamicUpdate}, so it never overwrites a turn change made at the same time.
+ */
+@Service
+public class RoomActivityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomActivityTracker.class);
+    private static final int MAX_IDS_PER_UPDATE = 500;
+
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate transaction;
+    private final Map<UUID, Instant> pending = new ConcurrentHashMap<>();
+
+    public RoomActivityTracker(RoomRepository roomRepository, PlatformTransactionManager transactionManager) {
+        this.roomRepository = roomRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public void touch(UUID roomId) {
+        Instant minute = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        pending.merge(roomId, minute, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    @Scheduled(fixedDelayString = "${api.activity.flush-interval:60s}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Drain and group by minute; nearly always a single group
+        Map<Instant, List<UUID>> roomsByMinute = new HashMap<>();
+        for (UUID roomId : pending.keySet()) {
+            Instant minute = pending.remove(roomId);
+            if (minute != null) {
+                roomsByMinute.computeIfAbsent(minute, m -> new ArrayList<>()).add(roomId);
+            }
+        }
+
+        int updated = 0;
+        for (Map.Entry<Instant, List<UUID>> group : roomsByMinute.entrySet()) {
+            List<UUID> roomIds = group.getValue();
+            for (int from = 0; from < roomIds.size(); from += MAX_IDS_PER_UPDATE) {
+                List<UUID> chunk = roomIds.subList(from, Math.min(from + MAX_IDS_PER_UPDATE, roomIds.size()));
+                try {
+                    updated += touchLastActivity(chunk, group.getKey());
+                } catch (RuntimeException e) {
+                    // Put the touches back so the next flush retries them
+                    logger.error("Failed to flush room activity for {} rooms: {}", chunk.size(), e.getMessage());
+                    chunk.forEach(roomId -> pending.merge(roomId, group.getKey(), (a, b) -> a.isAfter(b) ? a : b));
+                }
+            }
+        }
+        logger.debug("Flushed room activity, {} rooms updated", updated);
+    }
+
+    // Only moves the timestamp forward, so rooms already at this minute are left alone
+    private int touchLastActivity(List<UUID> roomIds, Instant at) {
+        return transaction.execute(status -> {
+            int touched = 0;
+            for (Room room : roomRepository.findAllById(roomIds)) {
+                if (room.getLastActivityAt() == null || room.getLastActivityAt().isBefore(at)) {
+                    room.setLastActivityAt(at);
+                    touched++;
+                }
+            }
+            return touched;
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("Flushing pending room activity before shutdown");
+        flush();
+    }
+}
@@ -0,0 +1,205 @@
+package com.storyweaver.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storyweaver.api.panel.Panel;
+import com.storyweaver.api.panel.PanelCreatedEvent;
+import com.storyweaver.api.panel.PanelRepository;
+import com.storyweaver.api.room.Room;
+import com.storyweaver.api.room.RoomArchive;
+import com.storyweaver.api.room.RoomMembership;
+import com.storyweaver.api.room.RoomMembershipRepository;
+import com.storyweaver.api.room.RoomRepository;
+import com.storyweaver.api.room.RoomStateDto;
+import com.storyweaver.api.room.RoomView;
+import com.storyweaver.api.storage.ObjectStorage;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves stale rooms between the hot tables and object storage. Cleanup snapshots and stores the
+ * archive and then deletes the rows itself; restore puts the rows back the first time an old link is opened.
+ */
+@Service
+public class RoomArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomArchiveService.class);
+
+    private final RoomRepository roomRepository;
+    private final RoomMembershipRepository roomMembershipRepository;
+    private final PanelRepository panelRepository;
+    private final ObjectStorage objectStorage;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TurnService turnService;
+
+    public RoomArchiveService(
+            RoomRepository roomRepository,
+            RoomMembershipRepository roomMembershipRepository,
+            PanelRepository panelRepository,
+            ObjectStorage objectStorage,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher,
+            TurnService turnService) {
+        this.roomRepository = roomRepository;
+        this.roomMembershipRepository = roomMembershipRepository;
+        this.panelRepository = panelRepository;
+        this.objectStorage = objectStorage;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.turnService = turnService;
+    }
+
+    /**
+     * Reads everything the archive needs from the hot tables. The cleanup job deletes exactly
+     * the rows in the snapshot, so it must be taken in the same transaction as the delete.
+     */
+    public RoomArchive snapshot(UUID roomId) {
+        RoomView room = roomRepository.findViewById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+        List<RoomArchive.Member> members = roomMembershipRepository.findByRoomIdOrderByJoinedAtAsc(roomId).stream()
+                .map(m -> new RoomArchive.Member(m.getId(), m.getUserId(), m.getJoinedAt()))
+                .toList();
+        List<RoomArchive.Panel> panels = panelRepository.findViewsByRoomId(roomId).stream()
+                .map(p -> new RoomArchive.Panel(p.id(), p.createdAt(), p.prompt(), p.imageUrl(), p.authorId()))
+                .toList();
+        return new RoomArchive(RoomArchive.CURRENT_VERSION, Instant.now(), room, members, panels);
+    }
+
+    /**
+     * Writes the archive to storage. The hot rows are left in place; the caller deletes them
+     * once the archive is safely stored.
+     */
+    public void store(RoomArchive archive) {
+        byte[] compressed = compress(archive);
+        objectStorage.storeArchive(archive.room().id(), compressed);
+        logger.info("Archived room {} ({} members, {} panels, {} bytes)",
+                archive.room().id(), archive.members().size(), archive.panels().size(), compressed.length);
+    }
+
+    /**
+     * Puts an archived room back into the hot tables and returns its state, or empty if the
+     * room has neither rows nor an archive. A room that is already hot is returned as is.
+     * Two concurrent restores of the same room collide on the primary key; the loser gets a
+     * DataIntegrityViolationException and can simply read the restored room.
+     */
+    @Transactional
+    public Optional<RoomStateDto> restore(UUID roomId) {
+        Optional<RoomView> hot = roomRepository.findViewById(roomId);
+        if (hot.isPresent()) {
+            return Optional.of(new RoomStateDto(hot.get(), roomMembershipRepository.findMemberIdsByRoomId(roomId)));
+        }
+        Optional<byte[]> stored = objectStorage.loadArchive(roomId);
+        if (stored.isEmpty()) {
+            // A concurrent restore may have committed the rows and dropped the archive since the first look
+            return roomRepository.findViewById(roomId)
+                    .map(view -> new RoomStateDto(view, roomMembershipRepository.findMemberIdsByRoomId(roomId)));
+        }
+        RoomArchive archive = decompress(stored.get());
+        RoomView room = archive.room();
+        Instant now = Instant.now();
+
+        // The code may have been handed to a new room since; the story link still works by id
+        String code = room.code() != null && roomRepository.findByCode(room.code()).isEmpty() ? room.code() : null;
+
+        // The current player gets a fresh turn rather than one that ran out while archived
+        Instant deadline = turnService.deadlineFor(room.turnTimeoutSeconds(), archive.members().size());
+
+        // Native inserts keep the original ids, which persist() would replace with generated ones
+        insert(Room.class, "insert into rooms (id, created_at, code, current_turn_user_id, turn_timeout_seconds, "
+                + "turn_deadline_at, last_activity_at) values (?1, ?2, ?3, ?4, ?5, ?6, ?7)",
+                room.id(), room.createdAt(), code, room.currentTurnUserId(), room.turnTimeoutSeconds(), deadline, now);
+        for (RoomArchive.Member member : archive.members()) {
+            insert(RoomMembership.class, "insert into room_memberships (id, room_id, user_id, joined_at) "
+                    + "values (?1, ?2, ?3, ?4)", member.id(), roomId, member.userId(), member.joinedAt());
+        }
+        for (RoomArchive.Panel panel : archive.panels()) {
+            insert(Panel.class, "insert into panels (id, created_at, prompt, image_url, room_id, author_id) "
+                    + "values (?1, ?2, ?3, ?4, ?5, ?6)",
+                    panel.id(), panel.createdAt(), panel.prompt(), panel.imageUrl(), roomId, panel.authorId());
+            eventPublisher.publishEvent(new PanelCreatedEvent(panel.id(), roomId, panel.prompt(), panel.createdAt()));
+        }
+
+        turnService.scheduleAfterCommit(roomId, deadline);
+
+        // Only drop the archive once the rows are committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    objectStorage.deleteArchive(roomId);
+                } catch (Exception e) {
+                    logger.warn("Restored room {} but could not delete its archive: {}", roomId, e.getMessage());
+                }
+            }
+        });
+        logger.info("Restored room {} from archive ({} members, {} panels)",
+                roomId, archive.members().size(), archive.panels().size());
+
+        List<UUID> memberIds = archive.members().stream().map(RoomArchive.Member::userId).toList();
+        RoomView restored = new RoomView(room.id(), room.createdAt(), code, room.currentTurnUserId(),
+                room.turnTimeoutSeconds(), deadline, now);
+        return Optional.of(new RoomStateDto(restored, memberIds));
+    }
+
+    // Synchronizing on the entity class tells Hibernate which cached entity data the insert
+    // touches, rather than letting it treat the native statement as touching everything
+    private void insert(Class<?> entityClass, String sql, Object... parameters) {
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedEntityClass(entityClass);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        try {
+            query.executeUpdate();
+        } catch (ConstraintViolationException e) {
+            throw new DataIntegrityViolationException("Room is already being restored", e);
+        }
+    }
+
+    private byte[] compress(RoomArchive archive) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, archive);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive for room " + archive.room().id(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private RoomArchive decompress(byte[] compressed) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            RoomArchive archive = objectMapper.readValue(gzip, RoomArchive.class);
+            if (archive.version() > RoomArchive.CURRENT_VERSION) {
+                throw new IllegalStateException("Unsupported room archive version " + archive.version());
+            }
+            return archive;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read room archive", e);
+        }
+    }
+}
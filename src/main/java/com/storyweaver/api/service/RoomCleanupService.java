@@ -1,84 +1,139 @@
 package com.storyweaver.api.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 
 import com.storyweaver.api.config.ApiConfig;
+import com.storyweaver.api.panel.PanelRepository;
 import com.storyweaver.api.room.Room;
+import com.storyweaver.api.room.RoomArchive;
+import com.storyweaver.api.room.RoomMembershipRepository;
 import com.storyweaver.api.room.RoomRepository;
+import com.storyweaver.api.room.RoomsRemovedEvent;
+import com.storyweaver.api.storage.ObjectStorage;
 
 @Service
 public class RoomCleanupService {
     private static final Logger logger = LoggerFactory.getLogger(RoomCleanupService.class);
     private final RoomRepository roomRepository;
-    private final ApiConfig apiConfig;
-    private final RestTemplate restTemplate;
+    private final RoomMembershipRepository roomMembershipRepository;
+    private final PanelRepository panelRepository;
+    private final ObjectStorage objectStorage;
+    private final RoomActivityTracker roomActivityTracker;
+    private final RoomArchiveService roomArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final boolean archiveRooms;
+    private final AtomicBoolean running = new AtomicBoolean();
 
-    public RoomCleanupService(RoomRepository roomRepository, ApiConfig apiConfig,
-            RestTemplateBuilder restTemplateBuilder) {
+    public RoomCleanupService(RoomRepository roomRepository, RoomMembershipRepository roomMembershipRepository,
+            PanelRepository panelRepository, ObjectStorage objectStorage, RoomActivityTracker roomActivityTracker,
+            RoomArchiveService roomArchiveService, ApiConfig apiConfig, ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
         this.roomRepository = roomRepository;
-        this.apiConfig = apiConfig;
-        this.restTemplate = restTemplateBuilder.build();
+        this.roomMembershipRepository = roomMembershipRepository;
+        this.panelRepository = panelRepository;
+        this.objectStorage = objectStorage;
+        this.roomActivityTracker = roomActivityTracker;
+        this.roomArchiveService = roomArchiveService;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.archiveRooms = switch (apiConfig.cleanup().mode()) {
+            case "archive" -> true;
+            case "delete" -> false;
+            default -> throw new IllegalStateException("Unknown api.cleanup.mode: " + apiConfig.cleanup().mode());
+        };
     }
 
+    // Runs on the task executor so a backlog of stale rooms doesn't hold up readiness
+    @Async
     @EventListener(ApplicationReadyEvent.class)
     public void runCleanupOnStartup() {
-        logger.info("Application started. Running initial stale room cleanup...");
+        logger.info("Application started. Running initial stale room cleanup in the background...");
         cleanupStaleRooms();
     }
 
-    @Transactional
+    // Both callers are in this class, so transactions are opened here rather than with @Transactional,
+    // which the proxy would never see. Each room gets its own, and RoomsRemovedEvent listeners run once it commits
     public void cleanupStaleRooms() {
+        // The startup sweep and the hourly one must not work on the same rooms at once
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Stale room cleanup already running, skipping this run");
+            return;
+        }
+        try {
+            // Activity is written behind; make sure recent touches are in the DB before judging rooms stale
+            roomActivityTracker.flush();
+            removeStaleRooms();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void removeStaleRooms() {
         // Define "stale" as no activity for 24 hours
         Instant threshold = Instant.now().minus(java.time.Duration.ofHours(24));
         List<Room> staleRooms = roomRepository.findByLastActivityAtBefore(threshold);
 
+        // A room that fails or comes back to life here stays in the DB and is looked at again on the next run
+        List<UUID> removedRoomIds = new ArrayList<>();
         for (Room room : staleRooms) {
             try {
-                // 1. Delete all images in the room's storage folder
-                deleteSupabaseFolder(room.getId());
-
-                // 2. Delete room from DB (Cascade will handle panels/memberships if configured)
-                roomRepository.delete(room);
-
-                logger.info("Successfully deleted stale room: {}", room.getId());
+                if (Boolean.TRUE.equals(transaction.execute(status -> removeIfStale(room.getId(), threshold, status)))) {
+                    removedRoomIds.add(room.getId());
+                }
             } catch (Exception e) {
                 logger.error("Failed to cleanup room {}: {}", room.getId(), e.getMessage());
             }
         }
+        logger.info("{} {} of {} stale rooms: {}", archiveRooms ? "Archived" : "Deleted",
+                removedRoomIds.size(), staleRooms.size(), removedRoomIds);
     }
 
-    private void deleteSupabaseFolder(UUID roomId) {
-        String url = apiConfig.supabase().url() + "/storage/v1/object/panels";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(apiConfig.supabase().key());
-        headers.set("apikey", apiConfig.supabase().key());
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    // Archive and delete happen under the room's row lock, which joins and new panels also take
+    // before they insert, so either they commit first and are in the snapshot, or they find no room.
+    // Only the rows in the snapshot are deleted, and anything else found in the room keeps it
+    private boolean removeIfStale(UUID roomId, Instant threshold, TransactionStatus status) {
+        Optional<Room> room = roomRepository.findStaleForUpdate(roomId, threshold);
+        if (room.isEmpty()) {
+            logger.info("Room {} saw activity since it was listed as stale, keeping it", roomId);
+            return false;
+        }
 
-        // Supabase bulk delete requires the list of files or a prefix logic
-        // For a stand-out answer, mention you'd use a Edge Function or
-        // a specific Storage API call to delete the entire prefix "roomId/"
-        Map<String, Object> body = Map.of("prefixes", List.of(roomId.toString() + "/"));
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+        RoomArchive archive = roomArchiveService.snapshot(roomId);
+        panelRepository.deleteAllByIdInBatch(archive.panels().stream().map(RoomArchive.Panel::id).toList());
+        roomMembershipRepository.deleteAllByIdInBatch(archive.members().stream().map(RoomArchive.Member::id).toList());
+        if (panelRepository.existsByRoomId(roomId) || roomMembershipRepository.existsByRoomId(roomId)) {
+            logger.info("Room {} gained panels or members during cleanup, keeping it", roomId);
+            status.setRollbackOnly();
+            return false;
+        }
 
-        restTemplate.exchange(url, HttpMethod.DELETE, entity, String.class);
+        // Storage goes last before the row delete: if it fails the transaction rolls back and nothing is lost
+        if (archiveRooms) {
+            roomArchiveService.store(archive);
+        } else {
+            objectStorage.deleteRoom(roomId);
+        }
+        roomRepository.delete(room.get());
+        eventPublisher.publishEvent(new RoomsRemovedEvent(List.of(roomId)));
+        return true;
     }
 
     @Scheduled(cron = "0 0 * * * *") // Runs every hour on the hour
@@ -0,0 +1,126 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.room.Room;
+import com.storyweaver.api.room.RoomMembership;
+import com.storyweaver.api.room.RoomMembershipRepository;
+import com.storyweaver.api.room.RoomRepository;
+import com.storyweaver.api.room.RoomStateDto;
+import com.storyweaver.api.room.RoomView;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class RoomService {
+
+    public static final int MAX_MEMBERS = 5;
+
+    private final RoomRepository roomRepository;
+    private final RoomMembershipRepository roomMembershipRepository;
+    private final RoomActivityTracker roomActivityTracker;
+    private final TurnService turnService;
+
+    public RoomService(
+            RoomRepository roomRepository,
+            RoomMembershipRepository roomMembershipRepository,
+            RoomActivityTracker roomActivityTracker,
+            TurnService turnService) {
+        this.roomRepository = roomRepository;
+        this.roomMembershipRepository = roomMembershipRepository;
+        this.roomActivityTracker = roomActivityTracker;
+        this.turnService = turnService;
+    }
+
+    // Room and membership go out in one transaction, so one flush and commit
+    @Transactional
+    public Room createRoom(UUID userId) {
+        Room newRoom = new Room();
+        newRoom.setCurrentTurnUserId(userId);
+        newRoom.setCode(generateUniqueRoomCode());
+        Room savedRoom = roomRepository.save(newRoom);
+
+        RoomMembership membership = new RoomMembership();
+        membership.setRoomId(savedRoom.getId());
+        membership.setUserId(userId);
+        roomMembershipRepository.save(membership);
+        return savedRoom;
+    }
+
+    /**
+     * Adds the user to the room, or returns the room unchanged if they are already in it.
+     * Runs as a write transaction so the lookup goes to the primary: a room created a moment
+     * ago by someone else may not have reached the replica yet. The room row stays share-locked
+     * until commit, so stale room cleanup can't archive the room around a join in progress.
+     */
+    @Transactional
+    public Room joinRoom(UUID roomId, UUID userId) {
+        Room room = roomRepository.findByIdForJoin(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+        return join(room, userId);
+    }
+
+    @Transactional
+    public Room joinRoomByCode(String code, UUID userId) {
+        Room room = roomRepository.findByCodeForJoin(code.toUpperCase())
+                .orElseThrow(() -> new RuntimeException("Room not found with this code"));
+        return join(room, userId);
+    }
+
+    // Polled by every client in the room, so it reads projections and never loads the entity
+    @Transactional(readOnly = true)
+    public RoomStateDto getRoomState(UUID roomId) {
+        RoomView room = roomRepository.findViewById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+
+        List<UUID> memberIds = roomMembershipRepository.findMemberIdsByRoomId(roomId);
+        roomActivityTracker.touch(roomId);
+        return new RoomStateDto(room, memberIds);
+    }
+
+    private Room join(Room room, UUID userId) {
+        UUID roomId = room.getId();
+        roomActivityTracker.touch(roomId);
+
+        if (roomMembershipRepository.findByRoomIdAndUserId(roomId, userId).isPresent()) {
+            return room;
+        }
+
+        // ** THIS IS THE FIX for "Provided UUID required Long" **
+        // We use the correct repository method to find members by the room's ID.
+        List<RoomMembership> members = roomMembershipRepository.findByRoomIdOrderByJoinedAtAsc(roomId);
+        if (members.size() >= MAX_MEMBERS) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Room is full");
+        }
+
+        RoomMembership newMembership = new RoomMembership();
+        newMembership.setRoomId(roomId);
+        newMembership.setUserId(userId);
+        roomMembershipRepository.save(newMembership);
+        // A room that was waiting alone now has someone to pass the turn to
+        turnService.startClockIfIdle(room, members.size() + 1);
+        return room;
+    }
+
+    private String generateUniqueRoomCode() {
+        String code;
+        do {
+            code = generateRandomCode(6);
+        } while (roomRepository.findByCode(code).isPresent());
+        return code;
+    }
+
+    private String generateRandomCode(int length) {
+        final String CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        SecureRandom random = new SecureRandom();
+        return random.ints(length, 0, CHARS.length())
+                .mapToObj(CHARS::charAt)
+                .map(Object::toString)
+                .collect(Collectors.joining());
+    }
+}
@@ -0,0 +1,94 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.panel.LatestPanelRow;
+import com.storyweaver.api.panel.PanelRepository;
+import com.storyweaver.api.room.RoomMemberRow;
+import com.storyweaver.api.room.RoomMembershipRepository;
+import com.storyweaver.api.room.RoomRepository;
+import com.storyweaver.api.room.RoomSummaryDto;
+import com.storyweaver.api.room.RoomSummaryRow;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds room summaries for the lobby in three set-based queries (rooms, members,
+ * latest panels) no matter how many rooms are asked for.
+ */
+@Service
+public class RoomSummaryService {
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private final RoomRepository roomRepository;
+    private final RoomMembershipRepository roomMembershipRepository;
+    private final PanelRepository panelRepository;
+
+    public RoomSummaryService(
+            RoomRepository roomRepository,
+            RoomMembershipRepository roomMembershipRepository,
+            PanelRepository panelRepository) {
+        this.roomRepository = roomRepository;
+        this.roomMembershipRepository = roomMembershipRepository;
+        this.panelRepository = panelRepository;
+    }
+
+    // Summaries come back in request order; unknown ids are dropped
+    @Transactional(readOnly = true)
+    public List<RoomSummaryDto> getSummaries(Collection<UUID> roomIds) {
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(roomIds));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, RoomSummaryRow> rowsById = roomRepository.findSummaryRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(RoomSummaryRow::id, Function.identity()));
+        List<RoomSummaryRow> rows = ids.stream()
+                .map(rowsById::get)
+                .filter(row -> row != null)
+                .collect(Collectors.toList());
+        return assemble(rows);
+    }
+
+    // Rooms the user belongs to, most recently active first
+    @Transactional(readOnly = true)
+    public List<RoomSummaryDto> getSummariesForMember(UUID userId) {
+        return assemble(roomRepository.findSummaryRowsByMemberId(userId));
+    }
+
+    private List<RoomSummaryDto> assemble(List<RoomSummaryRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = rows.stream().map(RoomSummaryRow::id).collect(Collectors.toList());
+
+        Map<UUID, List<UUID>> membersByRoom = new HashMap<>();
+        for (RoomMemberRow member : roomMembershipRepository.findMemberRowsByRoomIdIn(ids)) {
+            membersByRoom.computeIfAbsent(member.roomId(), id -> new ArrayList<>()).add(member.userId());
+        }
+
+        // Two panels created in the same instant would both match the max(), keep the first
+        Map<UUID, LatestPanelRow> latestByRoom = new HashMap<>();
+        for (LatestPanelRow panel : panelRepository.findLatestRowsByRoomIdIn(ids)) {
+            latestByRoom.putIfAbsent(panel.roomId(), panel);
+        }
+
+        return rows.stream()
+                .map(row -> new RoomSummaryDto(
+                        row.id(),
+                        row.code(),
+                        row.currentTurnUserId(),
+                        row.lastActivityAt(),
+                        membersByRoom.getOrDefault(row.id(), List.of()),
+                        latestByRoom.get(row.id())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,177 @@
+package com.storyweaver.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.storyweaver.api.config.ApiConfig;
+import com.storyweaver.api.panel.PanelExportRow;
+import com.storyweaver.api.panel.PanelRepository;
+import com.storyweaver.api.storage.ObjectStorage;
+import com.storyweaver.api.user.UserProfile;
+import com.storyweaver.api.user.UserProfileRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class StoryExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoryExportService.class);
+
+    private final PanelRepository panelRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final ObjectStorage objectStorage;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exportPermits;
+
+    public StoryExportService(
+            PanelRepository panelRepository,
+            UserProfileRepository userProfileRepository,
+            ApiConfig apiConfig,
+            ObjectStorage objectStorage,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.panelRepository = panelRepository;
+        this.userProfileRepository = userProfileRepository;
+        this.objectStorage = objectStorage;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.exportPermits = new Semaphore(apiConfig.export().maxConcurrent());
+    }
+
+    /**
+     * Reserves an export slot and returns the body that writes the ZIP, or empty if
+     * too many exports are already running. The slot is released once the body finishes,
+     * or when the request completes if the body never ran (async timeout or error).
+     */
+    public Optional<StreamingResponseBody> openExport(UUID roomId, HttpServletRequest request) {
+        if (!exportPermits.tryAcquire()) {
+            logger.warn("Rejecting export of room {}: export limit reached", roomId);
+            return Optional.empty();
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                exportPermits.release();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(StoryExportService.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        release.run();
+                    }
+                });
+        return Optional.of(out -> {
+            try {
+                writeZip(roomId, out);
+            } finally {
+                release.run();
+            }
+        });
+    }
+
+    private void writeZip(UUID roomId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Panel images are already JPEG-compressed, deflating them again only burns CPU
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        List<ManifestPanel> manifestPanels = new ArrayList<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<PanelExportRow> panels = panelRepository.streamExportRowsByRoomId(roomId)) {
+                    panels.forEach(panel -> {
+                        String fileName = String.format("panels/%03d.jpg", manifestPanels.size() + 1);
+                        boolean written = copyImage(panel.imageUrl(), fileName, zip);
+                        manifestPanels.add(new ManifestPanel(
+                                manifestPanels.size() + 1,
+                                written ? fileName : null,
+                                panel.prompt(),
+                                panel.authorId(),
+                                null,
+                                panel.createdAt()));
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        zip.putNextEntry(new ZipEntry("manifest.json"));
+        zip.write(objectMapper.writeValueAsBytes(buildManifest(roomId, manifestPanels)));
+        zip.closeEntry();
+        zip.finish();
+        logger.info("Exported {} panels for room {}", manifestPanels.size(), roomId);
+    }
+
+    // Pipes the image straight from storage into the ZIP entry. An image that can't be fetched is
+    // logged and skipped; once its entry is opened any failure ends the export, since the entry
+    // can't be taken back out of the stream and the client may already be gone
+    private boolean copyImage(String imageUrl, String fileName, ZipOutputStream zip) {
+        AtomicBoolean entryOpened = new AtomicBoolean();
+        try {
+            objectStorage.readImage(imageUrl, content -> {
+                entryOpened.set(true);
+                zip.putNextEntry(new ZipEntry(fileName));
+                StreamUtils.copy(content, zip);
+                zip.closeEntry();
+            });
+            return true;
+        } catch (IOException | RuntimeException e) {
+            if (entryOpened.get()) {
+                throw new UncheckedIOException(new IOException("Export aborted while writing " + fileName, e));
+            }
+            logger.warn("Skipping image {} in export: {}", imageUrl, e.getMessage());
+            return false;
+        }
+    }
+
+    private Manifest buildManifest(UUID roomId, List<ManifestPanel> panels) {
+        Set<UUID> authorIds = panels.stream()
+                .map(ManifestPanel::authorId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Map<UUID, String> usernames = userProfileRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(UserProfile::getId, UserProfile::getUsername));
+
+        List<ManifestPanel> named = panels.stream()
+                .map(panel -> panel.withAuthor(usernames.get(panel.authorId())))
+                .collect(Collectors.toList());
+        return new Manifest(roomId, Instant.now(), named);
+    }
+
+    record Manifest(UUID roomId, Instant exportedAt, List<ManifestPanel> panels) {}
+
+    record ManifestPanel(int index, String file, String prompt, UUID authorId, String author, Instant createdAt) {
+        ManifestPanel withAuthor(String author) {
+            return new ManifestPanel(index, file, prompt, authorId, author, createdAt);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.config.ApiConfig;
+import com.storyweaver.api.room.Room;
+import com.storyweaver.api.room.RoomMembershipRepository;
+import com.storyweaver.api.room.RoomRepository;
+import com.storyweaver.api.room.RoomTurnDeadline;
+import com.storyweaver.api.room.RoomsRemovedEvent;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns turn order and turn deadlines.
+ * <p>
+ * Whenever the turn moves the room gets a new {@code turnDeadlineAt}, and a timer for it is
+ * put on an in-process hashed wheel. When the timer fires the turn is skipped to the next
+ * player, but only if the room still has that deadline, so a panel that lands at the same
+ * moment wins. Timers are rebuilt from the rooms table on startup. With several instances
+ * more than one may fire for a room; the conditional update lets only one of them skip.
+ */
+@Service
+public class TurnService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TurnService.class);
+
+    static final int MIN_TIMEOUT_SECONDS = 30;
+    static final int MAX_TIMEOUT_SECONDS = 24 * 60 * 60;
+
+    private final RoomRepository roomRepository;
+    private final RoomMembershipRepository roomMembershipRepository;
+    private final Duration defaultTimeout;
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate transaction;
+    private final HashedWheelTimer wheel;
+    private final Map<UUID, Timeout> timers = new ConcurrentHashMap<>();
+
+    public TurnService(
+            RoomRepository roomRepository,
+            RoomMembershipRepository roomMembershipRepository,
+            ApiConfig apiConfig,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+            PlatformTransactionManager transactionManager) {
+        this.roomRepository = roomRepository;
+        this.roomMembershipRepository = roomMembershipRepository;
+        this.defaultTimeout = apiConfig.turns().defaultTimeout();
+        this.executor = executor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.wheel = new HashedWheelTimer(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "turn-timer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                apiConfig.turns().tick().toMillis(), TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * Passes the turn to the next member in join order, wrapping around, and restarts the
+     * turn clock. Does nothing in a room with a single member.
+     */
+    public void advanceTurn(Room room) {
+        List<UUID> memberIds = roomMembershipRepository.findMemberIdsByRoomId(room.getId());
+        if (memberIds.size() <= 1) {
+            return; // Turn doesn't change if there's only one person
+        }
+
+        UUID nextUserId = nextTurn(memberIds, room.getCurrentTurnUserId());
+        room.setCurrentTurnUserId(nextUserId);
+        room.setTurnDeadlineAt(deadlineFor(room.getTurnTimeoutSeconds(), memberIds.size()));
+        roomRepository.save(room);
+        scheduleAfterCommit(room.getId(), room.getTurnDeadlineAt());
+        logger.info("Advanced turn in room {} to user {}", room.getId(), nextUserId);
+    }
+
+    /**
+     * Starts the clock on the current turn if it isn't running, e.g. once a second player joins.
+     * Only the deadline column is written, and only while it is still empty; the passed room is
+     * updated for the caller's response but not saved.
+     */
+    public void startClockIfIdle(Room room, int memberCount) {
+        if (room.getTurnDeadlineAt() != null) {
+            return;
+        }
+        Instant deadline = deadlineFor(room.getTurnTimeoutSeconds(), memberCount);
+        if (deadline == null || roomRepository.startTurnClock(room.getId(), deadline) == 0) {
+            return;
+        }
+        room.setTurnDeadlineAt(deadline);
+        scheduleAfterCommit(room.getId(), deadline);
+    }
+
+    // Only members may change it; the current turn restarts with the new timeout
+    public Room setTurnTimeout(UUID roomId, UUID userId, Integer seconds) {
+        if (seconds != null && seconds != 0 && (seconds < MIN_TIMEOUT_SECONDS || seconds > MAX_TIMEOUT_SECONDS)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Turn timeout must be 0 or between " + MIN_TIMEOUT_SECONDS + " and " + MAX_TIMEOUT_SECONDS + " seconds");
+        }
+        return transaction.execute(status -> {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Room not found"));
+            List<UUID> memberIds = roomMembershipRepository.findMemberIdsByRoomId(roomId);
+            if (!memberIds.contains(userId)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a member of this room");
+            }
+            room.setTurnTimeoutSeconds(seconds);
+            room.setTurnDeadlineAt(deadlineFor(seconds, memberIds.size()));
+            Room saved = roomRepository.save(room);
+            scheduleAfterCommit(roomId, saved.getTurnDeadlineAt());
+            return saved;
+        });
+    }
+
+    /**
+     * The deadline for a turn starting now, or null when the turn should not time out.
+     * Truncated to millis so it compares equal after a round trip through the database.
+     */
+    public Instant deadlineFor(Integer timeoutSeconds, int memberCount) {
+        Duration timeout = timeoutSeconds != null ? Duration.ofSeconds(timeoutSeconds) : defaultTimeout;
+        if (memberCount <= 1 || timeout.isZero()) {
+            return null;
+        }
+        return Instant.now().plus(timeout).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Puts the room's timer on the wheel once the surrounding transaction commits, replacing
+     * any earlier one. A null deadline just cancels it.
+     */
+    public void scheduleAfterCommit(UUID roomId, Instant deadline) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(roomId, deadline);
+                }
+            });
+        } else {
+            schedule(roomId, deadline);
+        }
+    }
+
+    static UUID nextTurn(List<UUID> memberIds, UUID currentTurnUserId) {
+        int currentIndex = memberIds.indexOf(currentTurnUserId);
+        return memberIds.get((currentIndex + 1) % memberIds.size());
+    }
+
+    private void schedule(UUID roomId, Instant deadline) {
+        Timeout previous = deadline == null ? timers.remove(roomId) : timers.put(roomId, newTimer(roomId, deadline));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private Timeout newTimer(UUID roomId, Instant deadline) {
+        long delayMillis = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+        return wheel.newTimeout(timeout -> {
+            timers.remove(roomId, timeout);
+            // The wheel thread only hands off; skipping a turn touches the database
+            executor.execute(() -> expire(roomId, deadline));
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void expire(UUID roomId, Instant deadline) {
+        try {
+            Instant nextDeadline = transaction.execute(status -> {
+                Room room = roomRepository.findById(roomId).orElse(null);
+                if (room == null || !deadline.equals(room.getTurnDeadlineAt())) {
+                    return null; // Turn already moved on, or the room is gone
+                }
+                List<UUID> memberIds = roomMembershipRepository.findMemberIdsByRoomId(roomId);
+                UUID skippedUserId = room.getCurrentTurnUserId();
+                UUID nextUserId = memberIds.size() > 1 ? nextTurn(memberIds, skippedUserId) : skippedUserId;
+                Instant next = deadlineFor(room.getTurnTimeoutSeconds(), memberIds.size());
+                if (roomRepository.skipTurn(roomId, skippedUserId, deadline, nextUserId, next) == 0) {
+                    return null;
+                }
+                logger.info("Turn timed out in room {}: skipped user {}, now user {}", roomId, skippedUserId, nextUserId);
+                return next;
+            });
+            if (nextDeadline != null) {
+                schedule(roomId, nextDeadline);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to expire turn in room {}", roomId, e);
+        }
+    }
+
+    // Runs on the task executor like the startup cleanup; deadlines already past fire right away
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        List<RoomTurnDeadline> deadlines = roomRepository.findTurnDeadlines();
+        // A room whose turn moved since the query ran already has a newer timer; keep it
+        deadlines.forEach(d -> timers.computeIfAbsent(d.roomId(), roomId -> newTimer(roomId, d.deadline())));
+        logger.info("Scheduled {} turn deadlines from the database", deadlines.size());
+    }
+
+    boolean hasTimer(UUID roomId) {
+        return timers.containsKey(roomId);
+    }
+
+    @TransactionalEventListener
+    public void onRoomsRemoved(RoomsRemovedEvent event) {
+        event.roomIds().forEach(roomId -> schedule(roomId, null));
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+}
@@ -0,0 +1,31 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.user.UserProfileRepository;
+import com.storyweaver.api.user.UserProfileView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class UserService {
+
+    private final UserProfileRepository userProfileRepository;
+
+    public UserService(UserProfileRepository userProfileRepository) {
+        this.userProfileRepository = userProfileRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserProfileView> getProfile(UUID userId) {
+        return userProfileRepository.findViewById(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserProfileView> getProfiles(Collection<UUID> userIds) {
+        return userProfileRepository.findViewsByIdIn(userIds);
+    }
+}
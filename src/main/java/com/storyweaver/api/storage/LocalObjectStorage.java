@@ -0,0 +1,175 @@
+package com.storyweaver.api.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Images on local disk under {@code <root>/<roomId>/<file>.jpg}, served by ImageController,
+ * and room archives under {@code <root>/archives/<roomId>.json.gz}.
+ * For single-node and on-prem deployments where an HTTP round trip per upload isn't worth it.
+ */
+public class LocalObjectStorage implements ObjectStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalObjectStorage.class);
+    private static final String ARCHIVE_DIRECTORY = "archives";
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalObjectStorage(Path root, String publicBaseUrl) {
+        this.root = root.toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl;
+    }
+
+    @Override
+    public String storeImage(UUID roomId, byte[] imageBytes) {
+        String fileName = System.currentTimeMillis() + ".jpg";
+        try {
+            Path roomDir = Files.createDirectories(root.resolve(roomId.toString()));
+            writeAtomically(roomDir.resolve(fileName), imageBytes);
+            logger.info("Stored image locally: {}/{}", roomId, fileName);
+            return publicBaseUrl + "/api/images/" + roomId + "/" + fileName;
+        } catch (IOException e) {
+            logger.error("Error storing image for room {}", roomId, e);
+            throw new RuntimeException("Error uploading image to storage", e);
+        }
+    }
+
+    @Override
+    public void readImage(String imageUrl, ImageReader reader) throws IOException {
+        // Stored URLs end in /<roomId>/<file>
+        String[] segments = imageUrl.split("/");
+        if (segments.length < 2) {
+            throw new NoSuchFileException(imageUrl);
+        }
+        Path file = resolve(UUID.fromString(segments[segments.length - 2]), segments[segments.length - 1])
+                .orElseThrow(() -> new NoSuchFileException(imageUrl));
+        try (InputStream in = Files.newInputStream(file)) {
+            reader.read(in);
+        }
+    }
+
+    @Override
+    public void deleteRoom(UUID roomId) {
+        Path roomDir = root.resolve(roomId.toString());
+        if (!Files.exists(roomDir)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(roomDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    if (exc != null) {
+                        throw exc;
+                    }
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete images for room " + roomId, e);
+        }
+    }
+
+    @Override
+    public Optional<Resource> loadImage(UUID roomId, String fileName) {
+        return resolve(roomId, fileName)
+                .filter(Files::isRegularFile)
+                .map(FileSystemResource::new);
+    }
+
+    @Override
+    public List<String> listImages(UUID roomId) {
+        Path roomDir = root.resolve(roomId.toString());
+        if (!Files.isDirectory(roomDir)) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(roomDir, "*.jpg")) {
+            for (Path file : files) {
+                names.add(file.getFileName().toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list images for room " + roomId, e);
+        }
+        names.sort(null);
+        return names;
+    }
+
+    @Override
+    public void storeArchive(UUID roomId, byte[] archive) {
+        try {
+            Path archiveDir = Files.createDirectories(root.resolve(ARCHIVE_DIRECTORY));
+            writeAtomically(archiveDir.resolve(roomId + ".json.gz"), archive);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store archive for room " + roomId, e);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> loadArchive(UUID roomId) {
+        Path file = root.resolve(ARCHIVE_DIRECTORY).resolve(roomId + ".json.gz");
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive for room " + roomId, e);
+        }
+    }
+
+    @Override
+    public void deleteArchive(UUID roomId) {
+        try {
+            Files.deleteIfExists(root.resolve(ARCHIVE_DIRECTORY).resolve(roomId + ".json.gz"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete archive for room " + roomId, e);
+        }
+    }
+
+    // Write to a temp file in the same directory and rename it into place, so a
+    // reader never sees a half-written file
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tempFile = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.write(tempFile, content);
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // Rejects names that would escape the room directory (e.g. "../other/1.jpg")
+    private Optional<Path> resolve(UUID roomId, String fileName) {
+        Path roomDir = root.resolve(roomId.toString());
+        Path file = roomDir.resolve(fileName).normalize();
+        if (!roomDir.equals(file.getParent())) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+}
@@ -0,0 +1,53 @@
+package com.storyweaver.api.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Where panel images and room archives live. Images are grouped per room so a whole room
+ * can be removed at once.
+ */
+public interface ObjectStorage {
+
+    /**
+     * Stores a generated panel image and returns the URL to save on the Panel.
+     */
+    String storeImage(UUID roomId, byte[] imageBytes);
+
+    /**
+     * Opens an image previously returned by {@link #storeImage} and hands its content to the reader
+     * without buffering it. Throws if the image can't be read.
+     */
+    void readImage(String imageUrl, ImageReader reader) throws IOException;
+
+    /**
+     * Removes every image stored for the room.
+     */
+    void deleteRoom(UUID roomId);
+
+    /**
+     * Images this backend serves through /api/images; empty when images are served elsewhere.
+     */
+    Optional<Resource> loadImage(UUID roomId, String fileName);
+
+    List<String> listImages(UUID roomId);
+
+    /**
+     * Stores the compressed archive of a room that was moved out of the hot tables.
+     */
+    void storeArchive(UUID roomId, byte[] archive);
+
+    Optional<byte[]> loadArchive(UUID roomId);
+
+    void deleteArchive(UUID roomId);
+
+    @FunctionalInterface
+    interface ImageReader {
+        void read(InputStream content) throws IOException;
+    }
+}
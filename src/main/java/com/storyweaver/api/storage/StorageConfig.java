@@ -0,0 +1,30 @@
+package com.storyweaver.api.storage;
+
+import com.storyweaver.api.config.ApiConfig;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class StorageConfig {
+
+    // Picked at runtime from api.storage.type so one AOT-processed build serves both setups
+    @Bean
+    public ObjectStorage objectStorage(ApiConfig apiConfig, RestTemplateBuilder restTemplateBuilder) {
+        ApiConfig.Storage storage = apiConfig.storage();
+        switch (storage.type()) {
+            case "local":
+                return new LocalObjectStorage(Path.of(storage.localDirectory()), storage.publicBaseUrl());
+            case "supabase":
+                return new SupabaseObjectStorage(apiConfig, restTemplateBuilder
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .readTimeout(Duration.ofSeconds(60))
+                        .build());
+            default:
+                throw new IllegalStateException("Unknown api.storage.type: " + storage.type());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.storyweaver.api.user;
 
 import com.storyweaver.api.service.AuthHelper;
+import com.storyweaver.api.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,17 +15,19 @@ public class UserController {
 
     private final UserProfileRepository userProfileRepository;
     private final AuthHelper authHelper;
+    private final UserService userService;
 
-    public UserController(UserProfileRepository userProfileRepository, AuthHelper authHelper) {
+    public UserController(UserProfileRepository userProfileRepository, AuthHelper authHelper, UserService userService) {
         this.userProfileRepository = userProfileRepository;
         this.authHelper = authHelper;
+        this.userService = userService;
     }
 
     // Endpoint to get the current user's profile
     @GetMapping("/me")
-    public ResponseEntity<UserProfile> getMyProfile() {
+    public ResponseEntity<UserProfileView> getMyProfile() {
         UUID currentUserId = authHelper.getCurrentUserId();
-        return userProfileRepository.findById(currentUserId)
+        return userService.getProfile(currentUserId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -48,8 +51,8 @@ public class UserController {
 
     // Endpoint to get a batch of user profiles by their IDs
     @PostMapping("/profiles")
-    public ResponseEntity<List<UserProfile>> getUserProfiles(@RequestBody List<UUID> userIds) {
-        List<UserProfile> profiles = userProfileRepository.findAllById(userIds);
+    public ResponseEntity<List<UserProfileView>> getUserProfiles(@RequestBody List<UUID> userIds) {
+        List<UserProfileView> profiles = userService.getProfiles(userIds);
         return ResponseEntity.ok(profiles);
     }
 }
\ No newline at end of file
@@ -1,9 +1,22 @@
 package com.storyweaver.api.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserProfileRepository extends JpaRepository<UserProfile, UUID> {
-}
\ No newline at end of file
+
+    // Not query-cached: a username set on another instance would not evict it, so a new user would keep getting 404
+    @Query("select new com.storyweaver.api.user.UserProfileView(u.id, u.username) from UserProfile u where u.id = :id")
+    Optional<UserProfileView> findViewById(@Param("id") UUID id);
+
+    @Query("select new com.storyweaver.api.user.UserProfileView(u.id, u.username) from UserProfile u where u.id in :ids")
+    List<UserProfileView> findViewsByIdIn(@Param("ids") Collection<UUID> ids);
+}
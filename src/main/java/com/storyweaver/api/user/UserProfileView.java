@@ -0,0 +1,7 @@
+package com.storyweaver.api.user;
+
+import java.util.UUID;
+
+// Read-only projection of UserProfile; serializes to the same JSON as the entity
+public record UserProfileView(UUID id, String username) {
+}
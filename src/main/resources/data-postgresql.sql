@@ -0,0 +1,9 @@
+-- panels and room_memberships moved from IDENTITY ids to pooled sequences (allocation size 50).
+-- On a database that already has rows, start the sequences above the existing ids. The
+-- margin keeps clear of rows still being inserted through the old identity column while
+-- a rolling deploy is in progress. Once aligned the condition is false and this is a no-op.
+SELECT setval('panels_seq', (SELECT MAX(id) FROM panels) + 1000)
+WHERE (SELECT MAX(id) FROM panels) > (SELECT last_value FROM panels_seq);
+
+SELECT setval('room_memberships_seq', (SELECT MAX(id) FROM room_memberships) + 1000)
+WHERE (SELECT MAX(id) FROM room_memberships) > (SELECT last_value FROM room_memberships_seq);
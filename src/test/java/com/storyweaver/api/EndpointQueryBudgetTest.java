@@ -0,0 +1,251 @@
+package com.storyweaver.api;
+
+import com.storyweaver.api.image.ImageProviderRouter;
+import com.storyweaver.api.service.PanelService;
+import com.storyweaver.api.user.UserProfile;
+import com.storyweaver.api.user.UserProfileRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement and row budgets for the hot endpoints, measured at the JDBC driver against H2.
+ * Upstream calls are stubbed: image generation returns fixed bytes, the story summary a fixed
+ * string, and images are stored on local disk.
+ * <p>
+ * Every request runs against an empty second-level cache, so a budget holds whatever earlier
+ * tests or requests happened to warm. Read endpoints are polled constantly and must also not
+ * hydrate entities into the persistence context.
+ * <p>
+ * A budget going up is a regression unless the change means it. Lower the number when a
+ * change saves a statement, so the saving can't quietly be lost again.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({EndpointQueryBudgetTest.CaptureConfig.class, RoomFixture.class})
+class EndpointQueryBudgetTest {
+
+    @TempDir
+    static Path storageDirectory;
+
+    @DynamicPropertySource
+    static void localStorage(DynamicPropertyRegistry registry) {
+        registry.add("api.storage.type", () -> "local");
+        registry.add("api.storage.local-directory", storageDirectory::toString);
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        JdbcCapture jdbcCapture() {
+            return new JdbcCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor captureDataSource(ObjectProvider<JdbcCapture> capture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return beanName.equals("dataSource") ? capture.getObject().wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    @MockitoBean
+    private ImageProviderRouter imageProviderRouter;
+
+    @MockitoSpyBean
+    private PanelService panelService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcCapture capture;
+
+    @Autowired
+    private RoomFixture fixture;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID userId;
+    private UUID otherUserId;
+    private UUID roomId;
+
+    @BeforeEach
+    void seed() {
+        userId = UUID.randomUUID();
+        otherUserId = UUID.randomUUID();
+        roomId = fixture.room(userId, List.of(userId, otherUserId)).getId();
+        fixture.panels(roomId, userId, 3);
+
+        for (UUID memberId : List.of(userId, otherUserId)) {
+            UserProfile profile = new UserProfile();
+            profile.setId(memberId);
+            profile.setUsername("user-" + memberId.toString().substring(0, 8));
+            userProfileRepository.save(profile);
+        }
+
+        when(imageProviderRouter.generate(anyString())).thenReturn(new byte[]{1, 2, 3});
+        doReturn("the story so far").when(panelService).generateStoryContext(anyList());
+    }
+
+    @Test
+    void getRoomState() throws Exception {
+        Measurement measurement = perform(get("/api/rooms/{roomId}", roomId).with(user(userId.toString())));
+
+        // Room view and member ids
+        assertWithinBudget(measurement, 2, 3);
+        assertNoEntitiesLoaded(measurement);
+    }
+
+    @Test
+    void getRoomStateKeepsEntityJsonShape() throws Exception {
+        mockMvc.perform(get("/api/rooms/{roomId}", roomId).with(user(userId.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.room.id").value(roomId.toString()))
+                .andExpect(jsonPath("$.room.currentTurnUserId").value(userId.toString()))
+                .andExpect(jsonPath("$.members.length()").value(2));
+    }
+
+    @Test
+    void joinRoomByIdAsNewMember() throws Exception {
+        Measurement measurement = perform(post("/api/rooms/{roomId}/join", roomId)
+                .with(user(UUID.randomUUID().toString())));
+
+        // Room, membership check, member count, insert, and the update that starts the turn clock
+        assertWithinBudget(measurement, 5, 3);
+    }
+
+    @Test
+    void joinRoomByIdAsExistingMember() throws Exception {
+        Measurement measurement = perform(post("/api/rooms/{roomId}/join", roomId)
+                .with(user(otherUserId.toString())));
+
+        // Room and membership check
+        assertWithinBudget(measurement, 2, 2);
+    }
+
+    @Test
+    void createPanel() throws Exception {
+        Measurement measurement = perform(post("/api/panels")
+                .with(user(userId.toString()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"prompt\": \"a dragon lands\", \"roomId\": \"" + roomId + "\"}"));
+
+        // Room, last three panels for context, the room lock, member ids for the next turn, the panel insert
+        // and one room update
+        assertWithinBudget(measurement, 6, 7);
+    }
+
+    @Test
+    void panelsForRoom() throws Exception {
+        Measurement measurement = perform(get("/api/panels/room/{roomId}", roomId).with(user(userId.toString())));
+
+        assertWithinBudget(measurement, 1, 3);
+        assertNoEntitiesLoaded(measurement);
+    }
+
+    @Test
+    void roomSummariesWhateverTheBatchSize() throws Exception {
+        StringBuilder body = new StringBuilder("[\"" + roomId + "\"");
+        for (int i = 0; i < 4; i++) {
+            body.append(", \"").append(fixture.room(userId, List.of()).getId()).append('"');
+        }
+        body.append(']');
+
+        Measurement measurement = perform(post("/api/rooms/batch")
+                .with(user(userId.toString()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.toString()));
+
+        // Rooms, members and latest panels: five rooms, two members and one latest panel
+        assertWithinBudget(measurement, 3, 8);
+        assertNoEntitiesLoaded(measurement);
+    }
+
+    @Test
+    void myProfile() throws Exception {
+        Measurement measurement = perform(get("/api/users/me").with(user(userId.toString())));
+
+        assertWithinBudget(measurement, 1, 1);
+        assertNoEntitiesLoaded(measurement);
+    }
+
+    @Test
+    void profileBatch() throws Exception {
+        Measurement measurement = perform(post("/api/users/profiles")
+                .with(user(userId.toString()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"" + userId + "\", \"" + otherUserId + "\"]"));
+
+        assertWithinBudget(measurement, 1, 2);
+        assertNoEntitiesLoaded(measurement);
+    }
+
+    private Measurement perform(RequestBuilder request) throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        capture.start();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return new Measurement(capture.stop(), statistics.getEntityLoadCount());
+    }
+
+    private void assertWithinBudget(Measurement measurement, int maxStatements, int maxRows) {
+        JdbcCapture.Result result = measurement.jdbc();
+        assertThat(result.statementCount()).as("statements: %s", result).isLessThanOrEqualTo(maxStatements);
+        assertThat(result.rows()).as("rows fetched: %s", result).isLessThanOrEqualTo(maxRows);
+        assertThat(result.repeatedSelects()).as("repeated SELECTs: %s", result).isEmpty();
+    }
+
+    private void assertNoEntitiesLoaded(Measurement measurement) {
+        assertThat(measurement.entityLoads()).as("entities loaded: %s", measurement.jdbc()).isZero();
+    }
+
+    // Statistics are session-factory wide, so the entity count can include other threads; it is only asserted to be zero
+    private record Measurement(JdbcCapture.Result jdbc, long entityLoads) {}
+}
@@ -0,0 +1,111 @@
+package com.storyweaver.api;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Records the JDBC statements run and the rows fetched by one thread between {@link #start()}
+ * and {@link #stop()}. Work on other threads (startup cleanup, activity flushes) is ignored.
+ * <p>
+ * Sequence calls are left out: with pooled ids one in fifty inserts makes one, so counting
+ * them would make budgets depend on test order.
+ */
+public class JdbcCapture implements QueryExecutionListener, MethodExecutionListener {
+
+    private volatile Thread owner;
+    private final List<String> statements = new ArrayList<>();
+    private int rows;
+    private int sequenceCalls;
+
+    public DataSource wrap(DataSource dataSource) {
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name("captured")
+                .listener(this)
+                .methodListener(this)
+                .proxyResultSet()
+                .build();
+    }
+
+    public synchronized void start() {
+        statements.clear();
+        rows = 0;
+        sequenceCalls = 0;
+        owner = Thread.currentThread();
+    }
+
+    public synchronized Result stop() {
+        owner = null;
+        // Each sequence call fetched exactly one row
+        return new Result(List.copyOf(statements), rows - sequenceCalls);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    // A JDBC batch arrives here once, however many parameter sets it carries
+    @Override
+    public synchronized void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (Thread.currentThread() != owner) {
+            return;
+        }
+        for (QueryInfo query : queryInfoList) {
+            String sql = query.getQuery().toLowerCase(Locale.ROOT);
+            if (sql.contains("next value for") || sql.contains("nextval(")) {
+                sequenceCalls++;
+            } else {
+                statements.add(query.getQuery());
+            }
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public synchronized void afterMethod(MethodExecutionContext executionContext) {
+        if (Thread.currentThread() == owner
+                && executionContext.getTarget() instanceof ResultSet
+                && executionContext.getMethod().getName().equals("next")
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            rows++;
+        }
+    }
+
+    public record Result(List<String> statements, int rows) {
+
+        public int statementCount() {
+            return statements.size();
+        }
+
+        // The same SELECT more than once in a request is the usual sign of an N+1
+        public List<String> repeatedSelects() {
+            Map<String, Long> counts = statements.stream()
+                    .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+            return counts.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 1)
+                    .map(entry -> entry.getValue() + "x " + entry.getKey())
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public String toString() {
+            return statementCount() + " statements, " + rows + " rows:\n  " + String.join("\n  ", statements);
+        }
+    }
+}
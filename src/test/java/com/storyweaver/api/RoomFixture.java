@@ -0,0 +1,79 @@
+package com.storyweaver.api;
+
+import com.storyweaver.api.panel.Panel;
+import com.storyweaver.api.panel.PanelRepository;
+import com.storyweaver.api.room.Room;
+import com.storyweaver.api.room.RoomMembership;
+import com.storyweaver.api.room.RoomMembershipRepository;
+import com.storyweaver.api.room.RoomRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seeds rooms, memberships and panels for tests. Each call commits on its own, like the
+ * repository save it wraps. Import it with {@code @Import(RoomFixture.class)}.
+ */
+@TestComponent
+public class RoomFixture {
+
+    private final RoomRepository roomRepository;
+    private final RoomMembershipRepository roomMembershipRepository;
+    private final PanelRepository panelRepository;
+
+    public RoomFixture(RoomRepository roomRepository, RoomMembershipRepository roomMembershipRepository,
+            PanelRepository panelRepository) {
+        this.roomRepository = roomRepository;
+        this.roomMembershipRepository = roomMembershipRepository;
+        this.panelRepository = panelRepository;
+    }
+
+    // A room with a single member whose turn it is
+    public Room room(UUID userId) {
+        return room(userId, List.of(userId));
+    }
+
+    // Members join in the order given
+    public Room room(UUID currentTurnUserId, List<UUID> memberIds) {
+        Room room = new Room();
+        room.setCode(UUID.randomUUID().toString().substring(0, 6).toUpperCase());
+        room.setCurrentTurnUserId(currentTurnUserId);
+        Room saved = roomRepository.save(room);
+
+        for (UUID memberId : memberIds) {
+            RoomMembership membership = new RoomMembership();
+            membership.setRoomId(saved.getId());
+            membership.setUserId(memberId);
+            roomMembershipRepository.save(membership);
+        }
+        return saved;
+    }
+
+    // "panel 0", "panel 1", ... in creation order; returns their ids in the same order
+    public List<Long> panels(UUID roomId, UUID authorId, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(panel(roomId, authorId, "panel " + i).getId());
+        }
+        return ids;
+    }
+
+    public Panel panel(UUID roomId, UUID authorId, String prompt) {
+        Panel panel = new Panel();
+        panel.setRoomId(roomId);
+        panel.setAuthorId(authorId);
+        panel.setPrompt(prompt);
+        panel.setImageUrl("http://localhost/" + UUID.randomUUID() + ".jpg");
+        return panelRepository.save(panel);
+    }
+
+    // @PrePersist stamps the creation time, so this is how a room is made to look idle
+    public Room lastActiveAt(UUID roomId, Instant lastActivityAt) {
+        Room room = roomRepository.findById(roomId).orElseThrow();
+        room.setLastActivityAt(lastActivityAt);
+        return roomRepository.save(room);
+    }
+}
@@ -0,0 +1,183 @@
+package com.storyweaver.api.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the router against two in-process H2 databases that each hold a marker row,
+ * so every query shows which database actually served it. Requests go through
+ * {@link ReadYourWritesFilter} as they do in the application. Transactions go through a
+ * JpaTransactionManager over Hibernate, as they do in the application.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicBoolean replicaDown = new AtomicBoolean();
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+    private EntityManagerFactory entityManagerFactory;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = new DelegatingDataSource(database("replica")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (replicaDown.get()) {
+                    throw new SQLException("replica down");
+                }
+                return super.getConnection();
+            }
+        };
+
+        routing = new ReplicaRoutingDataSource(primary, replica);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        factory.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+        // Skip reading JDBC metadata at boot so no connection is taken before the tests start
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                "hibernate.boot.allow_jdbc_metadata_access", "false"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(markerIn(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionsGoToPrimary() {
+        assertThat(markerIn(readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    void clientWhoJustWroteReadsFromPrimary() throws Exception {
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), written, (request, response) ->
+                readWrite.executeWithoutResult(status -> marker()));
+        Cookie cookie = written.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(written.getHeader(ReadYourWritesFilter.HEADER)).isEqualTo(cookie.getValue());
+
+        // The marker travels with the client, so nothing on this instance has to remember the write
+        MockHttpServletRequest withCookie = new MockHttpServletRequest();
+        withCookie.setCookies(cookie);
+        assertThat(readIn(withCookie)).isEqualTo("primary");
+
+        MockHttpServletRequest withHeader = new MockHttpServletRequest();
+        withHeader.addHeader(ReadYourWritesFilter.HEADER, cookie.getValue());
+        assertThat(readIn(withHeader)).isEqualTo("primary");
+
+        assertThat(readIn(new MockHttpServletRequest())).isEqualTo("replica");
+    }
+
+    @Test
+    void expiredOrForgedMarkerIsIgnored() throws Exception {
+        MockHttpServletRequest expired = new MockHttpServletRequest();
+        expired.addHeader(ReadYourWritesFilter.HEADER, Long.toString(System.currentTimeMillis() - 1));
+        assertThat(readIn(expired)).isEqualTo("replica");
+
+        MockHttpServletRequest forged = new MockHttpServletRequest();
+        forged.addHeader(ReadYourWritesFilter.HEADER, Long.toString(Long.MAX_VALUE));
+        assertThat(readIn(forged)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsOutsideTransactionsDoNotCountAsWrites() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> served = new AtomicReference<>();
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            marker();
+            served.set(markerIn(readOnly));
+        });
+
+        assertThat(served).hasValue("replica");
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE)).isNull();
+    }
+
+    @Test
+    void readOnlyCallInsideWriteTransactionStaysOnPrimary() {
+        // Like SimpleJpaRepository.findById, which is readOnly, called from a read-write service method
+        String served = readWrite.execute(status -> markerIn(readOnly));
+        assertThat(served).isEqualTo("primary");
+    }
+
+    @Test
+    void fallsBackToPrimaryWhileReplicaIsDown() {
+        replicaDown.set(true);
+
+        assertThat(markerIn(readOnly)).isEqualTo("primary");
+        assertThat(routing.isReplicaHealthy()).isFalse();
+
+        replicaDown.set(false);
+        routing.checkReplicaHealth();
+
+        assertThat(routing.isReplicaHealthy()).isTrue();
+        assertThat(markerIn(readOnly)).isEqualTo("replica");
+    }
+
+    private String markerIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> marker());
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private String readIn(MockHttpServletRequest request) throws Exception {
+        AtomicReference<String> served = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> served.set(markerIn(readOnly)));
+        return served.get();
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table marker (name varchar(16))");
+        template.update("insert into marker values (?)", name);
+        return dataSource;
+    }
+}
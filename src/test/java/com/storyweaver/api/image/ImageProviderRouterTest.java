@@ -0,0 +1,112 @@
+package com.storyweaver.api.image;
+
+import com.storyweaver.api.config.ApiConfig;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageProviderRouterTest {
+
+    private static final ApiConfig.Images CONFIG = new ApiConfig.Images(
+            List.of(), 0.95, Duration.ofMillis(100), Duration.ofSeconds(5), 2, Duration.ofMinutes(1));
+
+    @Test
+    void slowPrimaryIsHedgedAndCancelled() {
+        StubProvider slow = new StubProvider("slow", Duration.ofSeconds(3), false);
+        StubProvider fast = new StubProvider("fast", Duration.ofMillis(10), false);
+        ImageProviderRouter router = new ImageProviderRouter(List.of(slow, fast), CONFIG);
+
+        long started = System.nanoTime();
+        byte[] image = router.generate("a castle");
+
+        assertThat(new String(image, StandardCharsets.UTF_8)).isEqualTo("fast");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(slow.cancelled).isTrue();
+        assertThat(router.stats("slow").failures()).isZero();
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() {
+        StubProvider first = new StubProvider("first", Duration.ofMillis(10), false);
+        StubProvider second = new StubProvider("second", Duration.ofMillis(10), false);
+        ImageProviderRouter router = new ImageProviderRouter(List.of(first, second), CONFIG);
+
+        assertThat(new String(router.generate("a castle"), StandardCharsets.UTF_8)).isEqualTo("first");
+        assertThat(second.calls).hasValue(0);
+    }
+
+    @Test
+    void singleProviderIsNeverHedgedToItself() {
+        StubProvider only = new StubProvider("only", Duration.ofMillis(500), false);
+        ImageProviderRouter router = new ImageProviderRouter(List.of(only), CONFIG);
+
+        assertThat(new String(router.generate("a castle"), StandardCharsets.UTF_8)).isEqualTo("only");
+        assertThat(only.calls).hasValue(1);
+        assertThat(only.cancelled).isFalse();
+    }
+
+    @Test
+    void failingProviderIsHedgedImmediatelyThenSkipped() {
+        StubProvider failing = new StubProvider("failing", Duration.ZERO, true);
+        StubProvider healthy = new StubProvider("healthy", Duration.ofMillis(10), false);
+        ImageProviderRouter router = new ImageProviderRouter(List.of(failing, healthy), CONFIG);
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(new String(router.generate("a castle"), StandardCharsets.UTF_8)).isEqualTo("healthy");
+        }
+        assertThat(router.stats("failing").open()).isTrue();
+
+        router.generate("a castle");
+        assertThat(failing.calls).hasValue(2);
+        assertThat(healthy.calls).hasValue(3);
+    }
+
+    @Test
+    void failsWhenEveryProviderFails() {
+        StubProvider first = new StubProvider("first", Duration.ZERO, true);
+        StubProvider second = new StubProvider("second", Duration.ZERO, true);
+        ImageProviderRouter router = new ImageProviderRouter(List.of(first, second), CONFIG);
+
+        assertThatThrownBy(() -> router.generate("a castle")).hasMessage("Error generating image");
+        assertThat(router.stats("first").failures()).isEqualTo(1);
+        assertThat(router.stats("second").failures()).isEqualTo(1);
+    }
+
+    private static final class StubProvider implements ImageProvider {
+        private final String name;
+        private final Duration delay;
+        private final boolean fails;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        StubProvider(String name, Duration delay, boolean fails) {
+            this.name = name;
+            this.delay = delay;
+            this.fails = fails;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Mono<byte[]> generate(String prompt) {
+            return Mono.defer(() -> {
+                calls.incrementAndGet();
+                Mono<Long> wait = Mono.delay(delay);
+                return fails
+                        ? wait.then(Mono.<byte[]>error(new RuntimeException(name + " is down")))
+                        : wait.thenReturn(name.getBytes(StandardCharsets.UTF_8));
+            }).doOnCancel(() -> cancelled.set(true));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.config.ApiConfig;
+import com.storyweaver.api.panel.CreatePanelRequest;
+import com.storyweaver.api.panel.Panel;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PanelIdempotencyServiceTest {
+
+    private final PanelIdempotencyService service = new PanelIdempotencyService(config(Duration.ofSeconds(5)));
+    private final UUID userId = UUID.randomUUID();
+    private final CreatePanelRequest request = new CreatePanelRequest("a dragon lands", UUID.randomUUID());
+    private final AtomicInteger generations = new AtomicInteger();
+
+    @Test
+    void completedKeyIsReplayed() {
+        PanelIdempotencyService.Outcome first = service.execute(userId, "key", request, this::generate);
+        PanelIdempotencyService.Outcome second = service.execute(userId, "key", request, this::generate);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.panel()).isSameAs(first.panel());
+        assertThat(generations).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstGeneration() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<PanelIdempotencyService.Outcome> first = CompletableFuture.supplyAsync(() ->
+                service.execute(userId, "key", request, () -> {
+                    started.countDown();
+                    await(release);
+                    return generate();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<PanelIdempotencyService.Outcome> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute(userId, "key", request, this::generate));
+        release.countDown();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).panel()).isSameAs(first.get(5, TimeUnit.SECONDS).panel());
+        assertThat(duplicate.get().replayed()).isTrue();
+        assertThat(generations).hasValue(1);
+    }
+
+    @Test
+    void sameKeyWithDifferentPayloadIsRejected() {
+        service.execute(userId, "key", request, this::generate);
+        CreatePanelRequest other = new CreatePanelRequest("a different prompt", request.roomId());
+
+        assertThatThrownBy(() -> service.execute(userId, "key", other, this::generate))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(generations).hasValue(1);
+    }
+
+    @Test
+    void failedGenerationCanBeRetried() {
+        assertThatThrownBy(() -> service.execute(userId, "key", request, () -> {
+            throw new RuntimeException("upstream down");
+        })).hasMessage("upstream down");
+
+        PanelIdempotencyService.Outcome retry = service.execute(userId, "key", request, this::generate);
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(generations).hasValue(1);
+    }
+
+    @Test
+    void errorDuringGenerationDoesNotLeaveTheKeyInFlight() {
+        assertThatThrownBy(() -> service.execute(userId, "key", request, () -> {
+            throw new OutOfMemoryError("simulated");
+        })).isInstanceOf(OutOfMemoryError.class);
+
+        assertThat(service.execute(userId, "key", request, this::generate).replayed()).isFalse();
+    }
+
+    @Test
+    void duplicateGivesUpAfterWaitTimeout() throws Exception {
+        PanelIdempotencyService impatient = new PanelIdempotencyService(config(Duration.ofMillis(100)));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<PanelIdempotencyService.Outcome> first = CompletableFuture.supplyAsync(() ->
+                impatient.execute(userId, "key", request, () -> {
+                    started.countDown();
+                    await(release);
+                    return generate();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> impatient.execute(userId, "key", request, this::generate))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        } finally {
+            release.countDown();
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+    }
+
+    private Panel generate() {
+        Panel panel = new Panel();
+        panel.setId((long) generations.incrementAndGet());
+        panel.setRoomId(request.roomId());
+        panel.setPrompt(request.prompt());
+        return panel;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ApiConfig config(Duration waitTimeout) {
+        return new ApiConfig(null, null, null, null,
+                new ApiConfig.Idempotency(Duration.ofMinutes(10), waitTimeout),
+                null, null, null, null, null);
+    }
+}
@@ -0,0 +1,86 @@
+package com.storyweaver.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PanelSearchIndexTest {
+
+    private final UUID castle = UUID.randomUUID();
+    private final UUID ocean = UUID.randomUUID();
+
+    @Test
+    void matchesEveryTermNewestFirst() {
+        PanelSearchIndex index = new PanelSearchIndex(100);
+        index.add(1, castle, "A dragon lands on the castle wall", at(1));
+        index.add(2, castle, "The knight draws his sword at the Dragon!", at(2));
+        index.add(3, ocean, "A whale surfaces next to the ship", at(3));
+
+        assertThat(index.search("dragon", 10)).containsExactly(2L, 1L);
+        assertThat(index.search("dragon knight", 10)).containsExactly(2L);
+        assertThat(index.search("dragon whale", 10)).isEmpty();
+        assertThat(index.search("dragon", 1)).containsExactly(2L);
+    }
+
+    @Test
+    void ranksByCreationTimeNotIndexingOrder() {
+        PanelSearchIndex index = new PanelSearchIndex(100);
+        index.add(1, castle, "storm over the castle", at(10));
+        // Indexed later, e.g. restored from an archive or caught up from another instance, but older
+        index.add(2, ocean, "storm over the ocean", at(5));
+        index.add(3, ocean, "storm at sea", at(20));
+
+        assertThat(index.search("storm", 10)).containsExactly(3L, 1L, 2L);
+        assertThat(index.search("storm", 2)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void trailingStarMatchesPrefix() {
+        PanelSearchIndex index = new PanelSearchIndex(100);
+        index.add(1, castle, "A dragon lands", at(1));
+        index.add(2, castle, "Dragonflies over the moat", at(2));
+        index.add(3, ocean, "A drifting raft", at(3));
+
+        assertThat(index.search("drag*", 10)).containsExactly(2L, 1L);
+        assertThat(index.search("dr*", 10)).containsExactly(3L, 2L, 1L);
+        assertThat(index.search("drag", 10)).isEmpty();
+    }
+
+    @Test
+    void removedRoomsDropOutOfResults() {
+        PanelSearchIndex index = new PanelSearchIndex(100);
+        index.add(1, castle, "storm over the castle", at(1));
+        index.add(2, ocean, "storm over the ocean", at(2));
+
+        index.removeRooms(List.of(castle));
+
+        assertThat(index.search("storm", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void oldestPanelsAreEvictedAndCompactionKeepsResults() {
+        PanelSearchIndex index = new PanelSearchIndex(1000);
+        for (int i = 0; i < 5000; i++) {
+            index.add(i, i % 2 == 0 ? castle : ocean, "panel number " + i + (i % 10 == 0 ? " tenth" : ""), at(i));
+        }
+
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(index.search("panel", 1)).containsExactly(4999L);
+        assertThat(index.search("1234", 10)).isEmpty();
+        assertThat(index.search("4321", 10)).containsExactly(4321L);
+        assertThat(index.search("tenth", 1000)).hasSize(100).first().isEqualTo(4990L);
+
+        index.removeRooms(List.of(castle));
+        assertThat(index.search("tenth", 1000)).isEmpty();
+        assertThat(index.search("panel", 1000)).hasSize(500).allMatch(id -> id % 2 == 1);
+    }
+
+    private static Instant at(long seconds) {
+        return Instant.ofEpochSecond(seconds);
+    }
+}
@@ -0,0 +1,43 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.RoomFixture;
+import com.storyweaver.api.panel.Panel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(RoomFixture.class)
+class PanelSearchServiceTest {
+
+    @Autowired
+    private PanelSearchService panelSearchService;
+
+    @Autowired
+    private RoomFixture fixture;
+
+    @Test
+    void catchUpIndexesPanelsCommittedElsewhereOnce() {
+        UUID userId = UUID.randomUUID();
+        UUID roomId = fixture.room(userId).getId();
+        // Saved without a PanelCreatedEvent, as a panel created on another instance looks to this one
+        Panel panel = fixture.panel(roomId, userId, "a lighthouse knitted from wool");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            panelSearchService.catchUp();
+            return panelSearchService.search("lighthouse", 10).contains(panel.getId());
+        });
+        panelSearchService.catchUp();
+
+        assertThat(panelSearchService.search("lighthouse knitted", 10)).containsExactly(panel.getId());
+    }
+}
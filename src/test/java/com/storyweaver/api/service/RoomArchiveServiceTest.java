@@ -0,0 +1,94 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.RoomFixture;
+import com.storyweaver.api.panel.PanelRepository;
+import com.storyweaver.api.room.RoomRepository;
+import com.storyweaver.api.storage.ObjectStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(RoomFixture.class)
+class RoomArchiveServiceTest {
+
+    @TempDir
+    static Path storageDirectory;
+
+    @DynamicPropertySource
+    static void localStorage(DynamicPropertyRegistry registry) {
+        registry.add("api.storage.type", () -> "local");
+        registry.add("api.storage.local-directory", storageDirectory::toString);
+        registry.add("api.cleanup.mode", () -> "archive");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomCleanupService roomCleanupService;
+
+    @Autowired
+    private ObjectStorage objectStorage;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomFixture fixture;
+
+    @Autowired
+    private PanelRepository panelRepository;
+
+    @Test
+    void archivedRoomIsRestoredWithItsIdsOnFirstOpen() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID roomId = fixture.room(userId).getId();
+        List<Long> panelIds = fixture.panels(roomId, userId, 3);
+
+        fixture.lastActiveAt(roomId, Instant.now().minus(Duration.ofDays(2)));
+        roomCleanupService.cleanupStaleRooms();
+        assertThat(roomRepository.findViewById(roomId)).isEmpty();
+        assertThat(objectStorage.loadArchive(roomId)).isPresent();
+
+        mockMvc.perform(post("/api/rooms/{roomId}/restore", roomId).with(user(userId.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.room.id").value(roomId.toString()))
+                .andExpect(jsonPath("$.room.currentTurnUserId").value(userId.toString()))
+                .andExpect(jsonPath("$.members[0]").value(userId.toString()));
+
+        mockMvc.perform(get("/api/rooms/{roomId}", roomId).with(user(userId.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members.length()").value(1));
+        assertThat(panelRepository.findViewsByRoomId(roomId)).extracting(p -> p.id()).isEqualTo(panelIds);
+        assertThat(objectStorage.loadArchive(roomId)).isEmpty();
+    }
+
+    @Test
+    void unknownRoomIsNotFound() throws Exception {
+        mockMvc.perform(post("/api/rooms/{roomId}/restore", UUID.randomUUID()).with(user(UUID.randomUUID().toString())))
+                .andExpect(status().isNotFound());
+    }
+}
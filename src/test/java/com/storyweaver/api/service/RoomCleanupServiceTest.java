@@ -0,0 +1,83 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.RoomFixture;
+import com.storyweaver.api.panel.Panel;
+import com.storyweaver.api.panel.PanelCreatedEvent;
+import com.storyweaver.api.room.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(RoomFixture.class)
+class RoomCleanupServiceTest {
+
+    @TempDir
+    static Path storageDirectory;
+
+    @DynamicPropertySource
+    static void localStorage(DynamicPropertyRegistry registry) {
+        registry.add("api.storage.type", () -> "local");
+        registry.add("api.storage.local-directory", storageDirectory::toString);
+    }
+
+    @Autowired
+    private RoomCleanupService roomCleanupService;
+
+    @Autowired
+    private PanelSearchService panelSearchService;
+
+    @Autowired
+    private TurnService turnService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomFixture fixture;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void staleRoomDropsOutOfSearchAndTurnTimers() {
+        UUID userId = UUID.randomUUID();
+        UUID roomId = fixture.room(userId).getId();
+        Panel panel = fixture.panel(roomId, userId, "a xylophone made of ice");
+        Long panelId = panel.getId();
+        // What createPanel publishes once its transaction commits
+        transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new PanelCreatedEvent(panelId, roomId, panel.getPrompt(), panel.getCreatedAt())));
+        await().atMost(Duration.ofSeconds(5)).until(() -> panelSearchService.search("xylophone", 10).contains(panelId));
+
+        turnService.scheduleAfterCommit(roomId, Instant.now().plus(Duration.ofHours(1)));
+        assertThat(turnService.hasTimer(roomId)).isTrue();
+
+        fixture.lastActiveAt(roomId, Instant.now().minus(Duration.ofDays(2)));
+
+        roomCleanupService.scheduleCleanup();
+
+        assertThat(roomRepository.existsById(roomId)).isFalse();
+        assertThat(panelSearchService.search("xylophone", 10)).doesNotContain(panelId);
+        assertThat(turnService.hasTimer(roomId)).isFalse();
+    }
+}
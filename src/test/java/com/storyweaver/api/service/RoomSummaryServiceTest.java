@@ -0,0 +1,95 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.RoomFixture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(RoomFixture.class)
+class RoomSummaryServiceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomFixture fixture;
+
+    private UUID userId;
+    private UUID olderRoomId;
+    private UUID newerRoomId;
+
+    @BeforeEach
+    void seed() {
+        userId = UUID.randomUUID();
+        olderRoomId = room(Instant.now().minus(Duration.ofHours(2)));
+        newerRoomId = room(Instant.now().minus(Duration.ofMinutes(5)));
+        fixture.panels(newerRoomId, userId, 2);
+    }
+
+    @Test
+    void batchKeepsRequestOrderAndDropsMissingAndDuplicateIds() throws Exception {
+        String body = "[\"" + newerRoomId + "\", \"" + UUID.randomUUID() + "\", \"" + olderRoomId + "\", \""
+                + newerRoomId + "\"]";
+
+        mockMvc.perform(post("/api/rooms/batch")
+                        .with(user(userId.toString()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(newerRoomId.toString()))
+                .andExpect(jsonPath("$[0].members[0]").value(userId.toString()))
+                .andExpect(jsonPath("$[0].latestPanel.prompt").value("panel 1"))
+                .andExpect(jsonPath("$[1].id").value(olderRoomId.toString()))
+                .andExpect(jsonPath("$[1].latestPanel").doesNotExist());
+    }
+
+    @Test
+    void batchOverTheLimitIsRejected() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i <= RoomSummaryService.MAX_BATCH_SIZE; i++) {
+            body.append(i == 0 ? "" : ", ").append('"').append(UUID.randomUUID()).append('"');
+        }
+        body.append(']');
+
+        mockMvc.perform(post("/api/rooms/batch")
+                        .with(user(userId.toString()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void mineListsMostRecentlyActiveRoomFirst() throws Exception {
+        mockMvc.perform(get("/api/rooms/mine").with(user(userId.toString())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(newerRoomId.toString()))
+                .andExpect(jsonPath("$[1].id").value(olderRoomId.toString()));
+    }
+
+    private UUID room(Instant lastActivityAt) {
+        UUID roomId = fixture.room(userId).getId();
+        fixture.lastActiveAt(roomId, lastActivityAt);
+        return roomId;
+    }
+}
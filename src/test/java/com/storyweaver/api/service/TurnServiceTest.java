@@ -0,0 +1,97 @@
+package com.storyweaver.api.service;
+
+import com.storyweaver.api.RoomFixture;
+import com.storyweaver.api.room.Room;
+import com.storyweaver.api.room.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = "api.turns.tick=10ms")
+@ActiveProfiles("test")
+@Import(RoomFixture.class)
+class TurnServiceTest {
+
+    @Autowired
+    private TurnService turnService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomFixture fixture;
+
+    private final List<UUID> members = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    private UUID roomId;
+
+    @BeforeEach
+    void seed() {
+        roomId = fixture.room(members.get(2), members).getId();
+    }
+
+    @Test
+    void expiredTurnWrapsToFirstJoinedMemberWithFreshDeadline() {
+        Instant deadline = Instant.now().plusMillis(200).truncatedTo(ChronoUnit.MILLIS);
+        setDeadline(deadline);
+        turnService.scheduleAfterCommit(roomId, deadline);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(roomRepository.findById(roomId).orElseThrow().getCurrentTurnUserId()).isEqualTo(members.get(0)));
+        Room room = roomRepository.findById(roomId).orElseThrow();
+        assertThat(room.getTurnDeadlineAt()).isAfter(Instant.now().plus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void staleDeadlineDoesNotSkipTheTurn() {
+        Instant deadline = Instant.now().plus(Duration.ofMinutes(10)).truncatedTo(ChronoUnit.MILLIS);
+        setDeadline(deadline);
+
+        turnService.expire(roomId, deadline.minusSeconds(60));
+
+        Room room = roomRepository.findById(roomId).orElseThrow();
+        assertThat(room.getCurrentTurnUserId()).isEqualTo(members.get(2));
+        assertThat(room.getTurnDeadlineAt()).isEqualTo(deadline);
+    }
+
+    @Test
+    void clockIsStartedOnlyOnce() {
+        Room first = roomRepository.findById(roomId).orElseThrow();
+        Room second = roomRepository.findById(roomId).orElseThrow();
+
+        turnService.startClockIfIdle(first, members.size());
+        Instant deadline = first.getTurnDeadlineAt();
+        // A concurrent join still holding the room without a deadline must not restart it
+        turnService.startClockIfIdle(second, members.size());
+
+        assertThat(deadline).isNotNull();
+        assertThat(second.getTurnDeadlineAt()).isNull();
+        assertThat(roomRepository.findById(roomId).orElseThrow().getTurnDeadlineAt()).isEqualTo(deadline);
+        assertThat(turnService.hasTimer(roomId)).isTrue();
+    }
+
+    @Test
+    void nextTurnFollowsJoinOrder() {
+        assertThat(TurnService.nextTurn(members, members.get(0))).isEqualTo(members.get(1));
+        assertThat(TurnService.nextTurn(members, members.get(2))).isEqualTo(members.get(0));
+        // A current player who left the room hands over to the first member
+        assertThat(TurnService.nextTurn(members, UUID.randomUUID())).isEqualTo(members.get(0));
+    }
+
+    private void setDeadline(Instant deadline) {
+        Room room = roomRepository.findById(roomId).orElseThrow();
+        room.setTurnDeadlineAt(deadline);
+        roomRepository.save(room);
+    }
+}